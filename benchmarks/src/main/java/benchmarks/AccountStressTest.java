@@ -0,0 +1,90 @@
+package benchmarks;
+
+import model.User;
+import service.TradingPlatform;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AccountStressTest {
+    private static final String[] SYMBOLS = {"AAPL", "GOOGL", "MSFT", "AMZN", "TSLA"};
+    private static final double INITIAL_BALANCE = 1_000_000;
+    
+    public static void main(String[] args) throws Exception {
+        int accountCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int operations = args.length > 1 ? Integer.parseInt(args[1]) : 400000;
+        String[] threadCounts = (args.length > 2 ? args[2] : "1,2,4,8").split(",");
+        
+        TradingPlatform platform = new TradingPlatform();
+        List<User> accounts = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            accounts.add(platform.getAccounts().open("stress-" + i, INITIAL_BALANCE));
+        }
+        double[] prices = new double[SYMBOLS.length];
+        for (int s = 0; s < SYMBOLS.length; s++) {
+            prices[s] = platform.getMarketData().getStock(SYMBOLS[s]).getCurrentPrice();
+        }
+        
+        boolean conserved = true;
+        try {
+            for (String count : threadCounts) {
+                int threads = Integer.parseInt(count.trim());
+                ExecutorService pool = Executors.newFixedThreadPool(threads);
+                AtomicLong trades = new AtomicLong();
+                List<Callable<Void>> work = new ArrayList<>(threads);
+                for (int t = 0; t < threads; t++) {
+                    Random random = new Random(t);
+                    int share = operations / threads;
+                    work.add(() -> {
+                        for (int i = 0; i < share; i++) {
+                            String username = "stress-" + random.nextInt(accountCount);
+                            String symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+                            int quantity = 1 + random.nextInt(5);
+                            boolean ok = random.nextBoolean()
+                                ? platform.buyStock(username, symbol, quantity)
+                                : platform.sellStock(username, symbol, quantity);
+                            if (ok) trades.incrementAndGet();
+                        }
+                        return null;
+                    });
+                }
+                long start = System.nanoTime();
+                try {
+                    for (Future<Void> result : pool.invokeAll(work)) {
+                        result.get();
+                    }
+                } finally {
+                    pool.shutdownNow();
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                int violations = checkConservation(accounts, prices);
+                conserved &= violations == 0;
+                System.out.printf("%d threads x %d accounts: %d operations (%d trades) in %.2f s (%.0f ops/s), %d accounts not conserved%n",
+                    threads, accountCount, operations / threads * threads, trades.get(), seconds,
+                    operations / threads * threads / seconds, violations);
+            }
+        } finally {
+            platform.shutdown();
+        }
+        if (!conserved) System.exit(1);
+    }
+    
+    private static int checkConservation(List<User> accounts, double[] prices) {
+        int violations = 0;
+        for (User account : accounts) {
+            synchronized (account) {
+                double value = account.getBalance();
+                boolean negative = value < 0;
+                for (int s = 0; s < SYMBOLS.length; s++) {
+                    int quantity = account.getPortfolio().getQuantity(SYMBOLS[s]);
+                    negative |= quantity < 0;
+                    value += quantity * prices[s];
+                }
+                if (negative || Math.abs(value - INITIAL_BALANCE) > 1e-6 * INITIAL_BALANCE) violations++;
+            }
+        }
+        return violations;
+    }
+}
@@ -0,0 +1,57 @@
+package benchmarks;
+
+import model.PriceAlert;
+import service.AlertIndex;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertIndexBenchmark {
+    private static final int SYMBOLS = 50;
+    
+    @Param({"10000", "1000000"})
+    public int alertCount;
+    
+    private AlertIndex index;
+    private String[] symbols;
+    private List<PriceAlert> fired;
+    private int cursor;
+    private boolean up;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new AlertIndex();
+        symbols = new String[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            symbols[i] = Fixtures.symbol(i);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < alertCount; i++) {
+            boolean above = random.nextBoolean();
+            double level = above ? 101 + random.nextDouble() * 100 : 99 - random.nextDouble() * 98;
+            PriceAlert.Direction direction = above ? PriceAlert.Direction.ABOVE : PriceAlert.Direction.BELOW;
+            index.add(new PriceAlert("user" + (i % 1000), symbols[i % SYMBOLS], direction, level), 100);
+        }
+        fired = new ArrayList<>();
+    }
+    
+    @Benchmark
+    public int tickWithoutCrossing() {
+        String symbol = symbols[cursor];
+        if (++cursor == SYMBOLS) {
+            cursor = 0;
+            up = !up;
+        }
+        fired.clear();
+        index.onPrice(symbol, up ? 100.5 : 99.5, fired);
+        return fired.size();
+    }
+}
@@ -0,0 +1,68 @@
+package benchmarks;
+
+import model.BarInterval;
+import model.BarSeries;
+import model.SymbolTable;
+import service.BarAggregator;
+import org.openjdk.jmh.annotations.*;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BarAggregatorBenchmark {
+    private static final int SYMBOLS = 512;
+    private static final int TICKS = 4096;
+    
+    private BarAggregator aggregator;
+    private int[] symbolIds;
+    private double[] prices;
+    private long timestamp;
+    private int next;
+    private long bars;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        aggregator = new BarAggregator((symbol, interval, start, open, high, low, close, ticks) -> bars++);
+        symbolIds = new int[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            symbolIds[i] = SymbolTable.idOf(Fixtures.symbol(i));
+            aggregator.addSymbol(symbolIds[i]);
+        }
+        prices = new double[TICKS];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < TICKS; i++) {
+            prices[i] = 100 + random.nextDouble() * 10;
+        }
+        timestamp = System.currentTimeMillis();
+        for (int bar = 0; bar <= BarAggregator.DEFAULT_RECENT_BARS; bar++) {
+            timestamp += BarInterval.MINUTE.getMillis();
+            for (int i = 0; i < SYMBOLS; i++) {
+                aggregator.onTick(symbolIds[i], prices[(bar + i) & (TICKS - 1)], timestamp);
+            }
+        }
+    }
+    
+    @Benchmark
+    public void onTick() {
+        int i = next++;
+        timestamp += 2;
+        aggregator.onTick(symbolIds[i & (SYMBOLS - 1)], prices[i & (TICKS - 1)], timestamp);
+    }
+    
+    @Benchmark
+    public void onTickEveryBarCloses() {
+        int i = next++;
+        timestamp += BarInterval.HOUR.getMillis();
+        aggregator.onTick(symbolIds[i & (SYMBOLS - 1)], prices[i & (TICKS - 1)], timestamp);
+    }
+    
+    @Benchmark
+    public BarSeries chartBars() {
+        return aggregator.getBars(symbolIds[next++ & (SYMBOLS - 1)], BarInterval.MINUTE);
+    }
+}
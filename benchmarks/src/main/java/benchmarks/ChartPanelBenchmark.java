@@ -0,0 +1,88 @@
+package benchmarks;
+
+import model.PriceSeries;
+import util.ChartPanel;
+import org.openjdk.jmh.annotations.*;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ChartPanelBenchmark {
+    @Param({"100", "10000", "1000000"})
+    public int points;
+    
+    private double[] prices;
+    private long[] timestamps;
+    private ChartPanel chart;
+    private BufferedImage screen;
+    private Graphics2D graphics;
+    private int visible;
+    private long epoch;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        prices = new double[points + 1_000_000];
+        timestamps = new long[prices.length];
+        SplittableRandom random = new SplittableRandom(42);
+        double price = 100;
+        for (int i = 0; i < prices.length; i++) {
+            price = Math.max(1, price + random.nextDouble() - 0.5);
+            prices[i] = price;
+            timestamps[i] = 1_000_000L + i;
+        }
+        chart = new ChartPanel("SYM0");
+        chart.setSize(400, 250);
+        screen = new BufferedImage(400, 250, BufferedImage.TYPE_INT_ARGB);
+        graphics = screen.createGraphics();
+    }
+    
+    @Setup(Level.Iteration)
+    public void reset() {
+        visible = points;
+        chart.setData(series(visible, ++epoch));
+        chart.paint(graphics);
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graphics.dispose();
+    }
+    
+    @Benchmark
+    public void repaintUnchanged() {
+        chart.paint(graphics);
+    }
+    
+    @Benchmark
+    public void appendAndRepaint() {
+        if (visible == prices.length) reset();
+        chart.setData(series(++visible, epoch));
+        chart.paint(graphics);
+    }
+    
+    @Benchmark
+    public void fullRender() {
+        chart.setData(series(points, ++epoch));
+        chart.paint(graphics);
+    }
+    
+    private PriceSeries series(int size, long offset) {
+        return new PriceSeries() {
+            @Override
+            public int size() { return size; }
+            
+            @Override
+            public double getPrice(int index) { return prices[index]; }
+            
+            @Override
+            public long getTimestamp(int index) { return timestamps[index] + offset * prices.length; }
+        };
+    }
+}
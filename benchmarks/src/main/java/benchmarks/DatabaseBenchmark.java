@@ -0,0 +1,66 @@
+package benchmarks;
+
+import database.DatabaseManager;
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DatabaseBenchmark {
+    private static final int PRICE_BATCH = 512;
+    
+    @Param({"100", "10000"})
+    public int historyLength;
+    
+    private DatabaseManager dbManager;
+    private User writer;
+    private String reader;
+    private String[] symbols;
+    private double[] prices;
+    private long[] timestamps;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        dbManager = new DatabaseManager("jdbc:sqlite:data/benchmark-" + System.nanoTime() + ".db");
+        reader = "bench-reader";
+        dbManager.saveUser(Fixtures.userWithHistory(reader, historyLength));
+        writer = Fixtures.userWithHistory("bench-writer", historyLength);
+        dbManager.saveUser(writer);
+        
+        symbols = new String[PRICE_BATCH];
+        prices = new double[PRICE_BATCH];
+        timestamps = new long[PRICE_BATCH];
+        for (int i = 0; i < PRICE_BATCH; i++) {
+            symbols[i] = Fixtures.symbol(i % 50);
+            prices[i] = 100 + i % 17;
+            timestamps[i] = 1_700_000_000_000L + i;
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dbManager.close();
+    }
+    
+    @Benchmark
+    public void saveUser() {
+        writer.addTransaction(new Transaction("SYM0", "BUY", 1, 100));
+        dbManager.saveUser(writer);
+    }
+    
+    @Benchmark
+    public User loadUser() {
+        return dbManager.loadUser(reader);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(PRICE_BATCH)
+    public void savePriceHistoryBatch() {
+        dbManager.savePriceHistoryBatch(symbols, prices, timestamps, PRICE_BATCH);
+    }
+}
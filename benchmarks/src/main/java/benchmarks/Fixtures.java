@@ -0,0 +1,57 @@
+package benchmarks;
+
+import model.*;
+import service.MarketData;
+
+final class Fixtures {
+    private Fixtures() {
+    }
+    
+    static String symbol(int index) {
+        return "SYM" + index;
+    }
+    
+    static void listSymbols(MarketData marketData, int symbolCount) {
+        for (int i = marketData.getSymbolCount(); i < symbolCount; i++) {
+            marketData.addStock(new Stock(symbol(i), "Benchmark Stock " + i, 100 + i % 400));
+        }
+    }
+    
+    static Order restingOrder(String symbol, int index) {
+        switch (index % 3) {
+            case 0:
+                return new Order(symbol, "BUY", 1, Order.OrderType.LIMIT, 0.01 + (index % 50) * 0.01);
+            case 1:
+                return new Order(symbol, "SELL", 1, Order.OrderType.LIMIT, 1_000_000 + index % 50);
+            default:
+                return new Order(symbol, "SELL", 1, Order.OrderType.STOP_LOSS, 0.01 + (index % 50) * 0.01);
+        }
+    }
+    
+    static User userWithHistory(String username, int transactions) {
+        User user = new User(username, 1_000_000);
+        for (int i = 0; i < transactions; i++) {
+            user.addTransaction(new Transaction(symbol(i % 50), i % 2 == 0 ? "BUY" : "SELL", 1 + i % 10, 100 + i % 97));
+        }
+        for (int i = 0; i < 20; i++) {
+            user.getPortfolio().addStock(symbol(i), 10 + i, 100 + i);
+        }
+        return user;
+    }
+    
+    static User largeAccount(String username, int transactions) {
+        User user = userWithHistory(username, transactions);
+        for (int i = 20; i < 2000; i++) {
+            user.getPortfolio().addStock(symbol(i), 10 + i % 90, 50 + i % 300);
+        }
+        for (int i = 0; i < 200; i++) {
+            user.getWatchlist().addSymbol(symbol(i));
+            user.getWatchlist().addAlert(new PriceAlert(username, symbol(i),
+                i % 2 == 0 ? PriceAlert.Direction.ABOVE : PriceAlert.Direction.BELOW, 100 + i));
+        }
+        for (int i = 0; i < 500; i++) {
+            user.getOrderBook().addOrder(restingOrder(symbol(i % 50), i));
+        }
+        return user;
+    }
+}
@@ -0,0 +1,121 @@
+package benchmarks;
+
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HoldingsBenchmark {
+    @Param({"1000", "50000"})
+    public int positions;
+    
+    private String[] symbols;
+    private int[] symbolIds;
+    private Portfolio portfolio;
+    private MapHoldings mapHoldings;
+    private int cursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        symbols = new String[positions];
+        symbolIds = new int[positions];
+        portfolio = new Portfolio();
+        mapHoldings = new MapHoldings();
+        for (int i = 0; i < positions; i++) {
+            symbols[i] = Fixtures.symbol(i);
+            symbolIds[i] = SymbolTable.idOf(symbols[i]);
+            portfolio.addStock(symbols[i], 10, 100 + i % 50);
+            mapHoldings.addStock(symbols[i], 10, 100 + i % 50);
+        }
+    }
+    
+    @Benchmark
+    public int tableUpdateBySymbol() {
+        String symbol = next();
+        portfolio.addStock(symbol, 1, 101);
+        portfolio.removeStock(symbol, 1);
+        return portfolio.getQuantity(symbol);
+    }
+    
+    @Benchmark
+    public int tableUpdateById() {
+        int id = symbolIds[cursor];
+        next();
+        portfolio.addStock(id, 1, 101);
+        portfolio.removeStock(id, 1);
+        return portfolio.getQuantity(id);
+    }
+    
+    @Benchmark
+    public int mapUpdate() {
+        String symbol = next();
+        mapHoldings.addStock(symbol, 1, 101);
+        mapHoldings.removeStock(symbol, 1);
+        return mapHoldings.getQuantity(symbol);
+    }
+    
+    @Benchmark
+    public double tableIterate() {
+        double[] total = new double[1];
+        portfolio.forEach((symbol, quantity, avgPrice, mark) -> total[0] += quantity * avgPrice);
+        return total[0];
+    }
+    
+    @Benchmark
+    public double mapIterate() {
+        double total = 0;
+        for (Map.Entry<String, Integer> entry : mapHoldings.getHoldings().entrySet()) {
+            total += entry.getValue() * mapHoldings.getAvgPrice(entry.getKey());
+        }
+        return total;
+    }
+    
+    private String next() {
+        String symbol = symbols[cursor];
+        if (++cursor == positions) cursor = 0;
+        return symbol;
+    }
+    
+    static class MapHoldings {
+        private final Map<String, Integer> holdings = new HashMap<>();
+        private final Map<String, Double> avgPurchasePrice = new HashMap<>();
+        
+        void addStock(String symbol, int quantity, double price) {
+            int currentQty = holdings.getOrDefault(symbol, 0);
+            double currentAvg = avgPurchasePrice.getOrDefault(symbol, 0.0);
+            double newAvg = ((currentAvg * currentQty) + (price * quantity)) / (currentQty + quantity);
+            holdings.put(symbol, currentQty + quantity);
+            avgPurchasePrice.put(symbol, newAvg);
+        }
+        
+        boolean removeStock(String symbol, int quantity) {
+            int currentQty = holdings.getOrDefault(symbol, 0);
+            if (currentQty < quantity) return false;
+            if (currentQty == quantity) {
+                holdings.remove(symbol);
+                avgPurchasePrice.remove(symbol);
+            } else {
+                holdings.put(symbol, currentQty - quantity);
+            }
+            return true;
+        }
+        
+        int getQuantity(String symbol) {
+            return holdings.getOrDefault(symbol, 0);
+        }
+        
+        double getAvgPrice(String symbol) {
+            return avgPurchasePrice.getOrDefault(symbol, 0.0);
+        }
+        
+        Map<String, Integer> getHoldings() {
+            return new HashMap<>(holdings);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import model.Stock;
+import service.MarketData;
+import service.RandomWalkFeed;
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketDataBenchmark {
+    @Param({"5", "500", "5000", "50000"})
+    public int symbolCount;
+    
+    @Param({"1", "4"})
+    public int parallelism;
+    
+    private MarketData marketData;
+    private ForkJoinPool pool;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        marketData = new MarketData();
+        Fixtures.listSymbols(marketData, symbolCount);
+        pool = new ForkJoinPool(parallelism);
+        marketData.setFeed(new RandomWalkFeed(marketData, 42L, pool));
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        marketData.shutdown();
+        pool.shutdown();
+    }
+    
+    @Benchmark
+    public void updatePrices() {
+        marketData.updatePrices();
+    }
+    
+    @Benchmark
+    public Stock lookupBySymbol() {
+        return marketData.getStock(Fixtures.symbol(symbolCount - 1));
+    }
+}
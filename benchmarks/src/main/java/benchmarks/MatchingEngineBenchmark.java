@@ -0,0 +1,45 @@
+package benchmarks;
+
+import model.LimitOrderBook;
+import service.MatchingEngine;
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchingEngineBenchmark {
+    private static final String SYMBOL = "SYM0";
+    
+    @Param({"1000", "10000"})
+    public int bookDepth;
+    
+    private MatchingEngine engine;
+    private int level;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new MatchingEngine(fill -> { });
+        for (int i = 0; i < bookDepth; i++) {
+            engine.submit(engine.nextOrderId(), "maker", SYMBOL, false, price(i), 1);
+            engine.submit(engine.nextOrderId(), "maker", SYMBOL, true, 50 - price(i) / 100, 1);
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public int crossAndReplenish() {
+        LimitOrderBook book = engine.getBook(SYMBOL);
+        double ask = LimitOrderBook.toPrice(book.getBestAsk());
+        engine.submit(engine.nextOrderId(), "taker", SYMBOL, true, ask, 1);
+        level = (level + 1) % bookDepth;
+        return engine.submit(engine.nextOrderId(), "maker", SYMBOL, false, price(level), 1);
+    }
+    
+    private static double price(int level) {
+        return 100 + (level % 100) * 0.01;
+    }
+}
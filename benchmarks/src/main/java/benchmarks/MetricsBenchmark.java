@@ -0,0 +1,64 @@
+package benchmarks;
+
+import util.Counter;
+import util.LatencyHistogram;
+import util.Metrics;
+import org.openjdk.jmh.annotations.*;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetricsBenchmark {
+    private static final int SAMPLES = 4096;
+    
+    private LatencyHistogram histogram;
+    private Counter counter;
+    private long[] latencies;
+    
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+    }
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        histogram = Metrics.histogram("benchmark.record");
+        counter = Metrics.counter("benchmark.count");
+        latencies = new long[SAMPLES];
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            latencies[i] = (long) (1_000 * Math.exp(random.nextDouble() * 8));
+        }
+    }
+    
+    @Benchmark
+    public long nanoTimeBaseline() {
+        return System.nanoTime() - System.nanoTime();
+    }
+    
+    @Benchmark
+    public void record(Cursor cursor) {
+        histogram.record(latencies[cursor.next++ & (SAMPLES - 1)]);
+    }
+    
+    @Benchmark
+    public void recordSince() {
+        histogram.recordSince(System.nanoTime());
+    }
+    
+    @Benchmark
+    @Threads(4)
+    public void recordContended(Cursor cursor) {
+        histogram.record(latencies[cursor.next++ & (SAMPLES - 1)]);
+    }
+    
+    @Benchmark
+    public void increment() {
+        counter.increment();
+    }
+}
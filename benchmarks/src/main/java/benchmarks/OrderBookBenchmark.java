@@ -0,0 +1,55 @@
+package benchmarks;
+
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBookBenchmark {
+    @Param({"5", "50"})
+    public int symbolCount;
+    
+    @Param({"100", "10000", "100000", "1000000"})
+    public int orderCount;
+    
+    private OrderBook orderBook;
+    private Order extra;
+    private double triggerPrice;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        orderBook = new OrderBook();
+        for (int i = 0; i < orderCount; i++) {
+            orderBook.addOrder(Fixtures.restingOrder(Fixtures.symbol(i % symbolCount), i / symbolCount));
+        }
+        triggerPrice = 0.01 + Math.min(orderCount / symbolCount, 50) / 2 * 0.01;
+        extra = Fixtures.restingOrder(Fixtures.symbol(0), 0);
+    }
+    
+    @Benchmark
+    public void addAndRemove() {
+        orderBook.addOrder(extra);
+        orderBook.removeOrder(extra.getOrderId());
+    }
+    
+    @Benchmark
+    public List<Order> triggeredOrders() {
+        return orderBook.getTriggeredOrders(Fixtures.symbol(0), triggerPrice);
+    }
+    
+    @Benchmark
+    public List<Order> untriggeredOrders() {
+        return orderBook.getTriggeredOrders(Fixtures.symbol(0), 150);
+    }
+    
+    @Benchmark
+    public List<Order> pendingOrders() {
+        return orderBook.getPendingOrders();
+    }
+}
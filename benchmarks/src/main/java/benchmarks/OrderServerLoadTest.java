@@ -0,0 +1,134 @@
+package benchmarks;
+
+import model.Order;
+import server.OrderClient;
+import server.OrderServer;
+import service.TradingPlatform;
+import util.LatencyHistogram;
+import util.Metrics;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OrderServerLoadTest {
+    private static final String SYMBOL = "AAPL";
+    
+    public static void main(String[] args) throws Exception {
+        int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int port = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        
+        TradingPlatform platform = null;
+        OrderServer server = null;
+        if (port == 0) {
+            platform = new TradingPlatform();
+            server = new OrderServer(platform, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            server.start();
+            port = server.getPort();
+        }
+        
+        LatencyHistogram roundTrip = Metrics.histogram("loadtest.roundTrip");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<OrderClient> clients = new ArrayList<>(sessions);
+        AtomicInteger failures = new AtomicInteger();
+        try {
+            long connectStart = System.nanoTime();
+            for (int i = 0; i < sessions; i++) {
+                clients.add(new OrderClient("localhost", port));
+            }
+            List<Callable<Void>> logins = new ArrayList<>(sessions);
+            for (int i = 0; i < sessions; i++) {
+                OrderClient client = clients.get(i);
+                String username = "load-" + i;
+                logins.add(() -> {
+                    long start = System.nanoTime();
+                    double balance = client.login(username);
+                    roundTrip.recordSince(start);
+                    if (!rejectsInvalidOrders(client, balance)) failures.incrementAndGet();
+                    return null;
+                });
+            }
+            invokeAll(pool, logins);
+            double connectMillis = (System.nanoTime() - connectStart) / 1e6;
+            System.out.printf("Connected and logged in %d sessions in %.0f ms%s%n", sessions, connectMillis,
+                server != null ? " (server sees " + server.getSessionCount() + " open sessions)" : "");
+            
+            List<Callable<Void>> work = new ArrayList<>(sessions);
+            for (OrderClient client : clients) {
+                work.add(() -> {
+                    for (int r = 0; r < rounds; r++) {
+                        if (!session(client, roundTrip)) failures.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            long requestsBefore = roundTrip.getCount();
+            long start = System.nanoTime();
+            invokeAll(pool, work);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            long requests = roundTrip.getCount() - requestsBefore;
+            
+            System.out.printf("%d sessions x %d rounds: %d requests in %.2f s (%.0f req/s), %d failed rounds%n",
+                sessions, rounds, requests, seconds, requests / seconds, failures.get());
+            System.out.printf("Round trip: p50 %.0f us, p99 %.0f us, p99.9 %.0f us, max %.0f us%n",
+                roundTrip.getP50Micros(), roundTrip.getP99Micros(), roundTrip.getP999Micros(), roundTrip.getMaxMicros());
+        } finally {
+            for (OrderClient client : clients) {
+                client.close();
+            }
+            pool.shutdownNow();
+            if (server != null) server.close();
+            if (platform != null) platform.shutdown();
+        }
+        if (failures.get() > 0) System.exit(1);
+    }
+    
+    private static boolean session(OrderClient client, LatencyHistogram roundTrip) throws IOException {
+        long start = System.nanoTime();
+        boolean ok = client.buy(SYMBOL, 2);
+        start = record(roundTrip, start);
+        String stopId = client.placeOrder(SYMBOL, "SELL", 1, Order.OrderType.STOP_LOSS, 1.0);
+        start = record(roundTrip, start);
+        ok &= stopId != null && client.cancelOrder(stopId);
+        start = record(roundTrip, start);
+        long limitId = client.submitLimitOrder(SYMBOL, "BUY", 1, 1.0);
+        start = record(roundTrip, start);
+        ok &= limitId >= 0 && client.cancelLimitOrder(SYMBOL, limitId);
+        start = record(roundTrip, start);
+        ok &= client.sell(SYMBOL, 2);
+        start = record(roundTrip, start);
+        OrderClient.Holdings holdings = client.portfolio();
+        record(roundTrip, start);
+        for (OrderClient.Position position : holdings.getPositions()) {
+            if (position.getSymbol().equals(SYMBOL) && position.getQuantity() != 0) ok = false;
+        }
+        return ok;
+    }
+    
+    private static boolean rejectsInvalidOrders(OrderClient client, double balance) throws IOException {
+        boolean ok = !client.buy(SYMBOL, -1000) && !client.buy(SYMBOL, 0) && !client.sell(SYMBOL, -1000);
+        ok &= client.placeOrder(SYMBOL, "BUY", -5, Order.OrderType.LIMIT, 100.0) == null;
+        ok &= client.placeOrder(SYMBOL, "SELL", 5, Order.OrderType.STOP_LOSS, Double.NaN) == null;
+        ok &= client.submitLimitOrder(SYMBOL, "BUY", -1000, 100.0) < 0;
+        ok &= client.submitLimitOrder(SYMBOL, "BUY", 1, -100.0) < 0;
+        ok &= client.submitLimitOrder(SYMBOL, "SELL", 1, Double.POSITIVE_INFINITY) < 0;
+        return ok && client.portfolio().getBalance() == balance;
+    }
+    
+    private static long record(LatencyHistogram histogram, long start) {
+        long now = System.nanoTime();
+        histogram.record(now - start);
+        return now;
+    }
+    
+    private static void invokeAll(ExecutorService pool, List<Callable<Void>> tasks) throws Exception {
+        for (Future<Void> result : pool.invokeAll(tasks)) {
+            result.get();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PortfolioBenchmark {
+    @Param({"5", "50", "500"})
+    public int symbolCount;
+    
+    private Portfolio portfolio;
+    private Map<String, Stock> market;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        portfolio = new Portfolio();
+        market = new LinkedHashMap<>();
+        for (int i = 0; i < symbolCount; i++) {
+            String symbol = Fixtures.symbol(i);
+            market.put(symbol, new Stock(symbol, "Benchmark Stock " + i, 100 + i));
+            portfolio.addStock(symbol, 10 + i, 90 + i);
+        }
+    }
+    
+    @Benchmark
+    public double calculateTotalValue() {
+        return portfolio.calculateTotalValue(market);
+    }
+    
+    @Benchmark
+    public double calculateProfitLoss() {
+        return portfolio.calculateProfitLoss(market);
+    }
+    
+    @Benchmark
+    public double markedValue() {
+        return portfolio.getMarketValue() + portfolio.getUnrealizedProfitLoss();
+    }
+    
+    @Benchmark
+    public void markToMarket() {
+        portfolio.markToMarket(market);
+    }
+    
+    @Benchmark
+    public int buyAndSell() {
+        portfolio.addStock(Fixtures.symbol(0), 5, 101);
+        portfolio.removeStock(Fixtures.symbol(0), 5);
+        return portfolio.getQuantity(Fixtures.symbol(0));
+    }
+}
@@ -0,0 +1,58 @@
+package benchmarks;
+
+import model.TickSink;
+import service.MarketData;
+import service.RandomWalkFeed;
+import org.openjdk.jmh.annotations.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomWalkFeedBenchmark {
+    @Param({"5", "500", "5000", "50000"})
+    public int symbolCount;
+    
+    @Param({"1", "4"})
+    public int parallelism;
+    
+    private MarketData marketData;
+    private ForkJoinPool pool;
+    private RandomWalkFeed feed;
+    private TickSink sink;
+    private double[] lastPrices;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        marketData = new MarketData();
+        Fixtures.listSymbols(marketData, symbolCount);
+        pool = new ForkJoinPool(parallelism);
+        feed = new RandomWalkFeed(marketData, 42L, pool);
+        lastPrices = new double[symbolCount * 2 + 64];
+        sink = new TickSink() {
+            @Override
+            public void onTick(String symbol, double price, long timestamp) {
+            }
+            
+            @Override
+            public void onTick(int symbolId, double price, long timestamp) {
+                lastPrices[symbolId] = price;
+            }
+        };
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+        marketData.shutdown();
+    }
+    
+    @Benchmark
+    public int publish() {
+        return feed.publish(sink);
+    }
+}
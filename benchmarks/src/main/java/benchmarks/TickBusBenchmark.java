@@ -0,0 +1,57 @@
+package benchmarks;
+
+import model.SymbolTable;
+import service.TickBus;
+import service.TickSubscription;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBusBenchmark {
+    private static final int SYMBOLS = 512;
+    
+    @Param({"1", "8", "64"})
+    public int subscribers;
+    
+    private TickBus bus;
+    private TickSubscription[] subscriptions;
+    private int[] symbolIds;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        bus = new TickBus();
+        subscriptions = new TickSubscription[subscribers];
+        for (int i = 0; i < subscribers; i++) {
+            subscriptions[i] = bus.subscribe("subscriber-" + i, null);
+        }
+        symbolIds = new int[SYMBOLS];
+        for (int i = 0; i < SYMBOLS; i++) {
+            symbolIds[i] = SymbolTable.idOf("TICK" + i);
+            bus.publish(symbolIds[i], 100.0, 0L);
+        }
+    }
+    
+    @Benchmark
+    public void publishSlowConsumers() {
+        int id = symbolIds[next++ & (SYMBOLS - 1)];
+        bus.publish(id, id, id);
+    }
+    
+    @Benchmark
+    public int publishAndDrain(Blackhole blackhole) {
+        int id = symbolIds[next++ & (SYMBOLS - 1)];
+        bus.publish(id, id, id);
+        int delivered = 0;
+        for (TickSubscription subscription : subscriptions) {
+            delivered += subscription.drain((symbol, price, timestamp) -> blackhole.consume(price));
+        }
+        return delivered;
+    }
+}
@@ -0,0 +1,76 @@
+package benchmarks;
+
+import model.*;
+import service.TradingPlatform;
+import org.openjdk.jmh.annotations.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TradingPlatformBenchmark {
+    private static final String ACCOUNT = "bench-orders";
+    
+    @Param({"5", "50"})
+    public int symbolCount;
+    
+    @Param({"100", "10000"})
+    public int orderCount;
+    
+    private TradingPlatform platform;
+    private List<PriceAlert> alerts;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty("java.awt.headless", "true");
+        platform = new TradingPlatform();
+        Fixtures.listSymbols(platform.getMarketData(), symbolCount);
+        
+        platform.getAccounts().open(ACCOUNT, 1_000_000);
+        List<String> symbols = new ArrayList<>(platform.getMarketData().getAllStocks().keySet());
+        for (int i = 0; i < orderCount; i++) {
+            platform.placeOrder(ACCOUNT, Fixtures.restingOrder(symbols.get(i % symbolCount), i));
+        }
+        alerts = new ArrayList<>();
+        String owner = platform.getUser().getUsername();
+        for (int i = 0; i < symbolCount; i++) {
+            alerts.add(platform.addAlert(owner, Fixtures.symbol(i), PriceAlert.Direction.ABOVE, 1_000_000));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        for (PriceAlert alert : alerts) {
+            platform.removeAlert(alert);
+        }
+        platform.shutdown();
+    }
+    
+    @State(Scope.Thread)
+    public static class Ticked {
+        @Setup(Level.Invocation)
+        public void tick(TradingPlatformBenchmark benchmark) {
+            benchmark.platform.getMarketData().updatePrices();
+        }
+    }
+    
+    @Benchmark
+    public void processOrders(Ticked ticked) {
+        platform.processOrders();
+    }
+    
+    @Benchmark
+    public void checkAlerts() {
+        platform.checkAlerts();
+    }
+    
+    @Benchmark
+    public void updateMarket() {
+        platform.updateMarket();
+    }
+}
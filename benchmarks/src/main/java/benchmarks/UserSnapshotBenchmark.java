@@ -0,0 +1,67 @@
+package benchmarks;
+
+import database.UserSnapshot;
+import model.*;
+import org.openjdk.jmh.annotations.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserSnapshotBenchmark {
+    @Param({"1000", "100000"})
+    public int transactions;
+    
+    private User user;
+    private Path directory;
+    private Path snapshotFile;
+    private Path serializedFile;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        user = Fixtures.largeAccount("bench", transactions);
+        directory = Files.createTempDirectory("user-snapshot");
+        snapshotFile = directory.resolve("user.snap");
+        serializedFile = directory.resolve("user.ser");
+        saveSnapshot();
+        saveSerialized();
+        System.out.println("\nsnapshot " + Files.size(snapshotFile) + " bytes, serialized " + Files.size(serializedFile) + " bytes");
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(snapshotFile);
+        Files.deleteIfExists(serializedFile);
+        Files.deleteIfExists(directory);
+    }
+    
+    @Benchmark
+    public void saveSnapshot() throws IOException {
+        UserSnapshot.write(user, snapshotFile);
+    }
+    
+    @Benchmark
+    public User loadSnapshot() throws IOException {
+        return UserSnapshot.read(snapshotFile);
+    }
+    
+    @Benchmark
+    public void saveSerialized() throws IOException {
+        try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(serializedFile.toFile())))) {
+            oos.writeObject(user);
+        }
+    }
+    
+    @Benchmark
+    public User loadSerialized() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(serializedFile.toFile())))) {
+            return (User) ois.readObject();
+        }
+    }
+}
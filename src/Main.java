@@ -1,9 +1,22 @@
-import service.TradingPlatform;
+import server.OrderServer;
+import service.*;
+import util.Metrics;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
 public class Main {
+    private static final int HISTORY_PAGE_SIZE = 20;
+    
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--server")) {
+            serve(args.length > 1 ? Integer.parseInt(args[1]) : Integer.getInteger("trading.server.port", OrderServer.DEFAULT_PORT));
+            return;
+        }
         TradingPlatform platform = new TradingPlatform();
+        platform.getStartupTimer().printReport();
         Scanner scanner = new Scanner(System.in);
         
         System.out.println("=== STOCK TRADING PLATFORM ===");
@@ -15,7 +28,9 @@ public class Main {
             System.out.println("4. View Portfolio");
             System.out.println("5. View Transaction History");
             System.out.println("6. Update Market Prices");
-            System.out.println("7. Save & Exit");
+            System.out.println("7. Replay Market Data");
+            System.out.println("8. View Metrics");
+            System.out.println("9. Save & Exit");
             System.out.print("Choose option: ");
             
             int choice = scanner.nextInt();
@@ -30,27 +45,33 @@ public class Main {
                     String buySymbol = scanner.nextLine().toUpperCase();
                     System.out.print("Enter quantity: ");
                     int buyQty = scanner.nextInt();
-                    platform.buyStock(buySymbol, buyQty);
+                    platform.getSequencer().buy(null, buySymbol, buyQty).join();
                     break;
                 case 3:
                     System.out.print("Enter stock symbol: ");
                     String sellSymbol = scanner.nextLine().toUpperCase();
                     System.out.print("Enter quantity: ");
                     int sellQty = scanner.nextInt();
-                    platform.sellStock(sellSymbol, sellQty);
+                    platform.getSequencer().sell(null, sellSymbol, sellQty).join();
                     break;
                 case 4:
                     platform.displayPortfolio();
                     break;
                 case 5:
-                    platform.displayTransactionHistory();
+                    history(platform, scanner);
                     break;
                 case 6:
-                    platform.updateMarket();
+                    platform.getSequencer().updateMarket().join();
                     System.out.println("Market prices updated!");
                     break;
                 case 7:
-                    platform.saveUser();
+                    replay(platform, scanner);
+                    break;
+                case 8:
+                    System.out.print(Metrics.report());
+                    break;
+                case 9:
+                    platform.shutdown();
                     System.out.println("Goodbye!");
                     scanner.close();
                     return;
@@ -59,4 +80,77 @@ public class Main {
             }
         }
     }
+    
+    private static void serve(int port) {
+        TradingPlatform platform = new TradingPlatform();
+        platform.getStartupTimer().printReport();
+        MarketEngine engine = new MarketEngine(platform);
+        OrderServer server;
+        try {
+            server = new OrderServer(platform, new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        } catch (IOException e) {
+            System.out.println("Cannot start order server: " + e.getMessage());
+            platform.shutdown();
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            engine.stop();
+            platform.shutdown();
+        }, "server-shutdown"));
+        engine.start();
+        server.start();
+        System.out.println("Order server listening on localhost:" + server.getPort() + " (Ctrl+C to stop)");
+    }
+    
+    private static void history(TradingPlatform platform, Scanner scanner) {
+        long before = platform.displayTransactionHistory(Long.MAX_VALUE, HISTORY_PAGE_SIZE);
+        while (before > 0) {
+            System.out.print("Press Enter for older transactions, or q to return: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) return;
+            before = platform.displayTransactionHistory(before, HISTORY_PAGE_SIZE);
+        }
+    }
+    
+    private static void replay(TradingPlatform platform, Scanner scanner) {
+        System.out.print("Source (1=CSV file, 2=Tick files, 3=Database): ");
+        int source = scanner.nextInt();
+        scanner.nextLine();
+        String path = null;
+        if (source == 1) {
+            System.out.print("CSV file (symbol,price,timestamp): ");
+            path = scanner.nextLine().trim();
+        }
+        System.out.print("Speed multiplier (0 = as fast as possible): ");
+        double speed = scanner.nextDouble();
+        scanner.nextLine();
+        
+        ReplayFeed feed;
+        try {
+            switch (source) {
+                case 1:
+                    feed = new CsvReplayFeed(Paths.get(path), speed);
+                    break;
+                case 2:
+                    feed = new TickFileReplayFeed(platform.getMarketData().getTickStore(),
+                        platform.getMarketData().getAllStocks().keySet(), Long.MIN_VALUE, Long.MAX_VALUE, speed);
+                    break;
+                case 3:
+                    feed = new DatabaseReplayFeed(platform.getDbManager(), 0, speed);
+                    break;
+                default:
+                    System.out.println("Invalid source!");
+                    return;
+            }
+        } catch (IOException e) {
+            System.out.println("Cannot open replay source: " + e.getMessage());
+            return;
+        }
+        
+        long start = System.nanoTime();
+        long steps = new MarketReplay(platform).run(feed);
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("Replayed %d ticks in %d steps (%.1f ms, %.0f ticks/s)\n",
+            feed.getTicksPublished(), steps, millis, feed.getTicksPublished() / Math.max(millis / 1000, 1e-9));
+    }
 }
@@ -0,0 +1,67 @@
+package database;
+
+import model.BarInterval;
+import java.util.Arrays;
+
+final class BarBatch {
+    private BarInterval[] intervals;
+    private String[] symbols;
+    private long[] starts;
+    private double[] opens;
+    private double[] highs;
+    private double[] lows;
+    private double[] closes;
+    private int[] ticks;
+    private int size;
+    
+    BarBatch(int capacity) {
+        this.intervals = new BarInterval[capacity];
+        this.symbols = new String[capacity];
+        this.starts = new long[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.ticks = new int[capacity];
+    }
+    
+    void add(String symbol, BarInterval interval, long start, double open, double high, double low, double close, int tickCount) {
+        if (size == symbols.length) grow();
+        intervals[size] = interval;
+        symbols[size] = symbol;
+        starts[size] = start;
+        opens[size] = open;
+        highs[size] = high;
+        lows[size] = low;
+        closes[size] = close;
+        ticks[size] = tickCount;
+        size++;
+    }
+    
+    void clear() {
+        Arrays.fill(symbols, 0, size, null);
+        size = 0;
+    }
+    
+    int size() { return size; }
+    BarInterval getInterval(int index) { return intervals[index]; }
+    String getSymbol(int index) { return symbols[index]; }
+    long getStart(int index) { return starts[index]; }
+    double getOpen(int index) { return opens[index]; }
+    double getHigh(int index) { return highs[index]; }
+    double getLow(int index) { return lows[index]; }
+    double getClose(int index) { return closes[index]; }
+    int getTickCount(int index) { return ticks[index]; }
+    
+    private void grow() {
+        int capacity = Math.max(16, symbols.length * 2);
+        intervals = Arrays.copyOf(intervals, capacity);
+        symbols = Arrays.copyOf(symbols, capacity);
+        starts = Arrays.copyOf(starts, capacity);
+        opens = Arrays.copyOf(opens, capacity);
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        closes = Arrays.copyOf(closes, capacity);
+        ticks = Arrays.copyOf(ticks, capacity);
+    }
+}
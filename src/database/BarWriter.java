@@ -0,0 +1,95 @@
+package database;
+
+import model.BarInterval;
+import model.BarSink;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class BarWriter implements BarSink {
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+    
+    private final DatabaseManager dbManager;
+    private final long flushIntervalNanos;
+    private BarBatch pending;
+    private BarBatch writing;
+    
+    private final ReentrantLock lock;
+    private final Condition flushRequested;
+    private final Thread writer;
+    private volatile boolean closing;
+    
+    public BarWriter(DatabaseManager dbManager) {
+        this(dbManager, Long.getLong("trading.bars.flushIntervalMs", DEFAULT_FLUSH_INTERVAL_MS));
+    }
+    
+    public BarWriter(DatabaseManager dbManager, long flushIntervalMillis) {
+        this.dbManager = dbManager;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.pending = new BarBatch(64);
+        this.writing = new BarBatch(64);
+        this.lock = new ReentrantLock();
+        this.flushRequested = lock.newCondition();
+        this.writer = new Thread(this::run, "bar-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "bar-flush"));
+    }
+    
+    @Override
+    public void onBar(String symbol, BarInterval interval, long start, double open, double high, double low, double close, int ticks) {
+        lock.lock();
+        try {
+            pending.add(symbol, interval, start, open, high, low, close, ticks);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void close() {
+        if (!closing) {
+            lock.lock();
+            try {
+                closing = true;
+                flushRequested.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (Thread.currentThread() == writer) return;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void run() {
+        while (true) {
+            BarBatch batch;
+            boolean done;
+            lock.lock();
+            try {
+                long remaining = flushIntervalNanos;
+                while (!closing && remaining > 0) {
+                    try {
+                        remaining = flushRequested.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        remaining = 0;
+                    }
+                }
+                batch = pending;
+                pending = writing;
+                writing = batch;
+                done = closing;
+            } finally {
+                lock.unlock();
+            }
+            if (batch.size() > 0) {
+                dbManager.saveBars(batch);
+                batch.clear();
+            }
+            if (done) return;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package database;
+
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class ConnectionPool {
+    private final String url;
+    private final int maxReaders;
+    private final ReentrantLock writerLock;
+    private final ArrayBlockingQueue<PooledConnection> idleReaders;
+    private final List<PooledConnection> allReaders;
+    private final CompletableFuture<Void> opened;
+    private PooledConnection writer;
+    private volatile boolean closed;
+    
+    public ConnectionPool(String url, int maxReaders) {
+        this(url, maxReaders, conn -> {});
+    }
+    
+    public ConnectionPool(String url, int maxReaders, Initializer initializer) {
+        this.url = url;
+        this.maxReaders = maxReaders;
+        this.writerLock = new ReentrantLock();
+        this.idleReaders = new ArrayBlockingQueue<>(maxReaders);
+        this.allReaders = new ArrayList<>();
+        this.opened = CompletableFuture.runAsync(() -> openWriter(initializer), r -> {
+            Thread t = new Thread(r, "database-open");
+            t.setDaemon(true);
+            t.start();
+        });
+    }
+    
+    public CompletableFuture<Void> opened() {
+        return opened;
+    }
+    
+    public PooledConnection writer() throws SQLException {
+        awaitOpened();
+        return acquireWriter();
+    }
+    
+    private PooledConnection acquireWriter() throws SQLException {
+        writerLock.lock();
+        try {
+            ensureOpen();
+            if (writer == null) {
+                Connection conn = open();
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("PRAGMA journal_mode=WAL");
+                }
+                writer = new PooledConnection(this, conn);
+            }
+            return writer;
+        } catch (SQLException | RuntimeException e) {
+            writerLock.unlock();
+            throw e;
+        }
+    }
+    
+    public PooledConnection reader() throws SQLException {
+        awaitOpened();
+        ensureOpen();
+        PooledConnection reader = idleReaders.poll();
+        if (reader != null) return reader;
+        
+        synchronized (allReaders) {
+            if (allReaders.size() < maxReaders) {
+                reader = new PooledConnection(this, open());
+                allReaders.add(reader);
+                return reader;
+            }
+        }
+        try {
+            return idleReaders.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+    }
+    
+    void release(PooledConnection conn) {
+        if (conn == writer) {
+            writerLock.unlock();
+        } else if (!closed) {
+            idleReaders.offer(conn);
+        } else {
+            conn.closePhysical();
+        }
+    }
+    
+    public void close() {
+        closed = true;
+        writerLock.lock();
+        try {
+            if (writer != null) writer.closePhysical();
+            writer = null;
+        } finally {
+            writerLock.unlock();
+        }
+        PooledConnection reader;
+        while ((reader = idleReaders.poll()) != null) {
+            reader.closePhysical();
+        }
+    }
+    
+    private Connection open() throws SQLException {
+        Connection conn = DriverManager.getConnection(url);
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("PRAGMA synchronous=NORMAL");
+            stmt.execute("PRAGMA busy_timeout=5000");
+        }
+        return conn;
+    }
+    
+    private void openWriter(Initializer initializer) {
+        try (PooledConnection conn = acquireWriter()) {
+            initializer.initialize(conn);
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+    
+    private void awaitOpened() throws SQLException {
+        try {
+            opened.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) throw (SQLException) e.getCause();
+            throw new SQLException("Database failed to open", e.getCause());
+        }
+    }
+    
+    private void ensureOpen() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+    }
+    
+    @FunctionalInterface
+    public interface Initializer {
+        void initialize(PooledConnection conn) throws SQLException;
+    }
+}
@@ -1,20 +1,75 @@
 package database;
 
 import model.*;
+import util.Counter;
+import util.LatencyHistogram;
+import util.Metrics;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 public class DatabaseManager {
     private static final String DB_URL = "jdbc:sqlite:data/trading.db";
+    private static final int READER_CONNECTIONS = 2;
+    private static final int PRICE_ROWS_PER_INSERT = 300;
+    private static final int SCHEMA_VERSION = 2;
     
-    public DatabaseManager() {
-        initDatabase();
+    private static final String UPSERT_USER = "INSERT OR REPLACE INTO users (username, balance) VALUES (?, ?)";
+    private static final String DELETE_PORTFOLIO = "DELETE FROM portfolio WHERE username = ?";
+    private static final String INSERT_PORTFOLIO =
+        "INSERT INTO portfolio (username, symbol, quantity, avg_price) VALUES (?, ?, ?, ?)";
+    private static final String SELECT_USER = "SELECT * FROM users WHERE username = ?";
+    private static final String SELECT_PORTFOLIO = "SELECT * FROM portfolio WHERE username = ?";
+    private static final String SELECT_TRANSACTION_PAGE =
+        "SELECT * FROM transactions WHERE username = ? AND seq < ? ORDER BY seq DESC LIMIT ?";
+    private static final String INSERT_PRICE = "INSERT INTO price_history (symbol, price, timestamp) VALUES (?, ?, ?)";
+    private static final String INSERT_PRICE_MULTI = multiRowPriceInsert(PRICE_ROWS_PER_INSERT);
+    private static final String SELECT_PRICES =
+        "SELECT * FROM price_history WHERE symbol = ? ORDER BY timestamp DESC LIMIT ?";
+    private static final String SELECT_PRICE_TICKS =
+        "SELECT rowid, symbol, price, timestamp FROM price_history WHERE rowid > ? AND timestamp >= ? ORDER BY rowid LIMIT ?";
+    private static final String[] UPSERT_BAR = barStatements(
+        "INSERT INTO %s (symbol, start, open, high, low, close, ticks) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (symbol, start) DO UPDATE SET high = MAX(high, excluded.high), low = MIN(low, excluded.low), " +
+        "close = excluded.close, ticks = ticks + excluded.ticks");
+    private static final String[] SELECT_BARS = barStatements(
+        "SELECT * FROM (SELECT start, open, high, low, close, ticks FROM %s " +
+        "WHERE symbol = ? AND start >= ? AND start < ? ORDER BY start DESC LIMIT ?) ORDER BY start");
+    
+    private static final LatencyHistogram SAVE_USER_LATENCY = Metrics.histogram("db.saveUser");
+    private static final LatencyHistogram LOAD_USER_LATENCY = Metrics.histogram("db.loadUser");
+    private static final LatencyHistogram LOAD_TRANSACTIONS_LATENCY = Metrics.histogram("db.loadTransactionPage");
+    private static final LatencyHistogram SAVE_PRICE_LATENCY = Metrics.histogram("db.savePriceHistory");
+    private static final LatencyHistogram SAVE_PRICE_BATCH_LATENCY = Metrics.histogram("db.savePriceHistoryBatch");
+    private static final LatencyHistogram LOAD_TICKS_LATENCY = Metrics.histogram("db.loadPriceTicks");
+    private static final LatencyHistogram LOAD_PRICES_LATENCY = Metrics.histogram("db.loadPriceHistory");
+    private static final LatencyHistogram SAVE_BARS_LATENCY = Metrics.histogram("db.saveBars");
+    private static final LatencyHistogram LOAD_BARS_LATENCY = Metrics.histogram("db.loadBars");
+    private static final Counter PRICE_ROWS_WRITTEN = Metrics.counter("db.priceRowsWritten");
+    private static final Counter BARS_WRITTEN = Metrics.counter("db.barsWritten");
+    
+    private static DatabaseManager instance;
+    
+    private final ConnectionPool pool;
+    private final TransactionJournal journal;
+    
+    public static synchronized DatabaseManager getInstance() {
+        if (instance == null) {
+            instance = new DatabaseManager(DB_URL);
+        }
+        return instance;
     }
     
-    private void initDatabase() {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            Statement stmt = conn.createStatement();
-            
+    public DatabaseManager(String dbUrl) {
+        this.pool = new ConnectionPool(dbUrl, READER_CONNECTIONS, this::initDatabase);
+        this.journal = new TransactionJournal(pool);
+    }
+    
+    private void initDatabase(PooledConnection conn) {
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+                if (rs.next() && rs.getInt(1) >= SCHEMA_VERSION) return;
+            }
             stmt.execute("CREATE TABLE IF NOT EXISTS users (" +
                 "username TEXT PRIMARY KEY, balance REAL)");
             
@@ -33,144 +88,383 @@ public class DatabaseManager {
             stmt.execute("CREATE TABLE IF NOT EXISTS watchlist (" +
                 "username TEXT, symbol TEXT, alert_price REAL, " +
                 "PRIMARY KEY (username, symbol))");
-                
+            
+            for (BarInterval interval : BarInterval.values()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS " + interval.getTable() + " (" +
+                    "symbol TEXT, start INTEGER, open REAL, high REAL, low REAL, close REAL, ticks INTEGER, " +
+                    "PRIMARY KEY (symbol, start)) WITHOUT ROWID");
+            }
+            
+            migrateTransactionSequence(stmt);
+            stmt.execute("CREATE INDEX IF NOT EXISTS idx_transactions_user_seq ON transactions (username, seq)");
+            stmt.execute("PRAGMA user_version = " + SCHEMA_VERSION);
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
     
-    public void saveUser(User user) {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            PreparedStatement ps = conn.prepareStatement(
-                "INSERT OR REPLACE INTO users (username, balance) VALUES (?, ?)");
-            ps.setString(1, user.getUsername());
-            ps.setDouble(2, user.getBalance());
-            ps.executeUpdate();
-            
-            savePortfolio(conn, user);
-            saveTransactions(conn, user);
-        } catch (SQLException e) {
-            e.printStackTrace();
+    private void migrateTransactionSequence(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(transactions)")) {
+            while (rs.next()) {
+                if ("seq".equals(rs.getString("name"))) return;
+            }
         }
+        stmt.execute("ALTER TABLE transactions ADD COLUMN seq INTEGER");
+        stmt.execute("UPDATE transactions SET seq = (SELECT COUNT(*) FROM transactions t2 " +
+            "WHERE t2.username = transactions.username AND t2.id <= transactions.id)");
     }
     
-    private void savePortfolio(Connection conn, User user) throws SQLException {
-        PreparedStatement del = conn.prepareStatement("DELETE FROM portfolio WHERE username = ?");
-        del.setString(1, user.getUsername());
-        del.executeUpdate();
-        
-        PreparedStatement ps = conn.prepareStatement(
-            "INSERT INTO portfolio (username, symbol, quantity, avg_price) VALUES (?, ?, ?, ?)");
-        
-        for (Map.Entry<String, Integer> entry : user.getPortfolio().getHoldings().entrySet()) {
-            ps.setString(1, user.getUsername());
-            ps.setString(2, entry.getKey());
-            ps.setInt(3, entry.getValue());
-            ps.setDouble(4, user.getPortfolio().getAvgPrice(entry.getKey()));
-            ps.executeUpdate();
+    public CompletableFuture<Void> opened() {
+        return pool.opened();
+    }
+    
+    public TransactionJournal getTransactionJournal() {
+        return journal;
+    }
+    
+    public void close() {
+        journal.close();
+        pool.close();
+    }
+    
+    public void saveUser(User user) {
+        long start = System.nanoTime();
+        synchronized (journal) {
+            try {
+                List<Transaction> pending = journal.pending(user);
+                double balance;
+                PortfolioSnapshot holdings;
+                synchronized (user) {
+                    balance = user.getBalance();
+                    holdings = new PortfolioSnapshot(user.getPortfolio().size());
+                    user.getPortfolio().forEach(holdings);
+                }
+                
+                try (PooledConnection conn = pool.writer()) {
+                    conn.begin();
+                    try {
+                        PreparedStatement ps = conn.prepare(UPSERT_USER);
+                        ps.setString(1, user.getUsername());
+                        ps.setDouble(2, balance);
+                        ps.executeUpdate();
+                        
+                        savePortfolio(conn, user.getUsername(), holdings);
+                        journal.write(conn, user.getUsername(), pending);
+                        conn.commit();
+                    } catch (SQLException e) {
+                        conn.rollback();
+                        throw e;
+                    }
+                }
+                journal.advance(user.getUsername(), pending);
+                journal.trim(user);
+            } catch (SQLException e) {
+                e.printStackTrace();
+            } finally {
+                SAVE_USER_LATENCY.recordSince(start);
+            }
         }
     }
     
-    private void saveTransactions(Connection conn, User user) throws SQLException {
-        PreparedStatement check = conn.prepareStatement(
-            "SELECT COUNT(*) FROM transactions WHERE username = ?");
-        check.setString(1, user.getUsername());
-        ResultSet rs = check.executeQuery();
-        if (rs.next() && rs.getInt(1) > 0) return;
+    private void savePortfolio(PooledConnection conn, String username, PortfolioSnapshot holdings) throws SQLException {
+        PreparedStatement del = conn.prepare(DELETE_PORTFOLIO);
+        del.setString(1, username);
+        del.executeUpdate();
         
-        PreparedStatement ps = conn.prepareStatement(
-            "INSERT INTO transactions (username, symbol, type, quantity, price) VALUES (?, ?, ?, ?, ?)");
+        PreparedStatement ps = conn.prepare(INSERT_PORTFOLIO);
         
-        for (Transaction t : user.getTransactionHistory()) {
-            ps.setString(1, user.getUsername());
-            ps.setString(2, t.getStockSymbol());
-            ps.setString(3, t.getType());
-            ps.setInt(4, t.getQuantity());
-            ps.setDouble(5, t.getPricePerShare());
-            ps.executeUpdate();
+        for (int i = 0; i < holdings.count; i++) {
+            ps.setString(1, username);
+            ps.setString(2, holdings.symbols[i]);
+            ps.setInt(3, holdings.quantities[i]);
+            ps.setDouble(4, holdings.avgPrices[i]);
+            ps.addBatch();
         }
+        ps.executeBatch();
     }
     
     public User loadUser(String username) {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            PreparedStatement ps = conn.prepareStatement("SELECT * FROM users WHERE username = ?");
+        long start = System.nanoTime();
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement ps = conn.prepare(SELECT_USER);
             ps.setString(1, username);
-            ResultSet rs = ps.executeQuery();
             
-            if (rs.next()) {
-                User user = new User(username, rs.getDouble("balance"));
-                loadPortfolio(conn, user);
-                loadTransactions(conn, user);
-                return user;
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    User user = new User(username, rs.getDouble("balance"));
+                    loadPortfolio(conn, user);
+                    loadTransactions(conn, user);
+                    return user;
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            LOAD_USER_LATENCY.recordSince(start);
         }
         return new User(username, 10000.0);
     }
     
-    private void loadPortfolio(Connection conn, User user) throws SQLException {
-        PreparedStatement ps = conn.prepareStatement("SELECT * FROM portfolio WHERE username = ?");
+    private void loadPortfolio(PooledConnection conn, User user) throws SQLException {
+        PreparedStatement ps = conn.prepare(SELECT_PORTFOLIO);
         ps.setString(1, user.getUsername());
-        ResultSet rs = ps.executeQuery();
         
-        while (rs.next()) {
-            String symbol = rs.getString("symbol");
-            int qty = rs.getInt("quantity");
-            double avgPrice = rs.getDouble("avg_price");
-            user.getPortfolio().addStock(symbol, qty, avgPrice);
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                String symbol = rs.getString("symbol");
+                int qty = rs.getInt("quantity");
+                double avgPrice = rs.getDouble("avg_price");
+                user.getPortfolio().addStock(symbol, qty, avgPrice);
+            }
         }
     }
     
-    private void loadTransactions(Connection conn, User user) throws SQLException {
-        PreparedStatement ps = conn.prepareStatement(
-            "SELECT * FROM transactions WHERE username = ? ORDER BY timestamp");
-        ps.setString(1, user.getUsername());
-        ResultSet rs = ps.executeQuery();
+    private void loadTransactions(PooledConnection conn, User user) throws SQLException {
+        List<Transaction> recent = loadTransactionPage(conn, user.getUsername(), Long.MAX_VALUE, journal.getRecentLimit());
+        for (int i = recent.size() - 1; i >= 0; i--) {
+            user.addTransaction(recent.get(i));
+        }
+    }
+    
+    public List<Transaction> loadTransactionPage(String username, long beforeSeq, int limit) {
+        long start = System.nanoTime();
+        try (PooledConnection conn = pool.reader()) {
+            return loadTransactionPage(conn, username, beforeSeq, limit);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return Collections.emptyList();
+        } finally {
+            LOAD_TRANSACTIONS_LATENCY.recordSince(start);
+        }
+    }
+    
+    private List<Transaction> loadTransactionPage(PooledConnection conn, String username, long beforeSeq, int limit)
+            throws SQLException {
+        PreparedStatement ps = conn.prepare(SELECT_TRANSACTION_PAGE);
+        ps.setString(1, username);
+        ps.setLong(2, beforeSeq);
+        ps.setInt(3, limit);
         
-        while (rs.next()) {
-            Transaction t = new Transaction(
-                rs.getString("symbol"),
-                rs.getString("type"),
-                rs.getInt("quantity"),
-                rs.getDouble("price")
-            );
-            user.addTransaction(t);
+        List<Transaction> page = new ArrayList<>(limit);
+        try (ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) {
+                page.add(new Transaction(
+                    rs.getString("symbol"),
+                    rs.getString("type"),
+                    rs.getInt("quantity"),
+                    rs.getDouble("price"),
+                    TransactionJournal.parseTimestamp(username, rs.getLong("seq"), rs.getString("timestamp")),
+                    rs.getLong("seq")
+                ));
+            }
         }
+        return page;
     }
     
     public void savePriceHistory(String symbol, double price) {
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            PreparedStatement ps = conn.prepareStatement(
-                "INSERT INTO price_history (symbol, price, timestamp) VALUES (?, ?, ?)");
+        long start = System.nanoTime();
+        try (PooledConnection conn = pool.writer()) {
+            PreparedStatement ps = conn.prepare(INSERT_PRICE);
             ps.setString(1, symbol);
             ps.setDouble(2, price);
             ps.setLong(3, System.currentTimeMillis());
             ps.executeUpdate();
+            PRICE_ROWS_WRITTEN.increment();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            SAVE_PRICE_LATENCY.recordSince(start);
+        }
+    }
+    
+    public void savePriceHistoryBatch(String[] symbols, double[] prices, long[] timestamps, int count) {
+        long start = System.nanoTime();
+        try (PooledConnection conn = pool.writer()) {
+            conn.begin();
+            try {
+                int row = 0;
+                PreparedStatement multi = conn.prepare(INSERT_PRICE_MULTI);
+                while (count - row >= PRICE_ROWS_PER_INSERT) {
+                    row = bindPriceRows(multi, symbols, prices, timestamps, row, PRICE_ROWS_PER_INSERT);
+                    multi.executeUpdate();
+                }
+                if (row < count) {
+                    PreparedStatement single = conn.prepare(INSERT_PRICE);
+                    for (; row < count; row++) {
+                        bindPriceRows(single, symbols, prices, timestamps, row, 1);
+                        single.addBatch();
+                    }
+                    single.executeBatch();
+                }
+                conn.commit();
+                PRICE_ROWS_WRITTEN.add(count);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            SAVE_PRICE_BATCH_LATENCY.recordSince(start);
+        }
+    }
+    
+    void saveBars(BarBatch batch) {
+        long start = System.nanoTime();
+        try (PooledConnection conn = pool.writer()) {
+            conn.begin();
+            try {
+                PreparedStatement[] statements = new PreparedStatement[UPSERT_BAR.length];
+                for (int i = 0; i < batch.size(); i++) {
+                    int interval = batch.getInterval(i).ordinal();
+                    PreparedStatement ps = statements[interval];
+                    if (ps == null) {
+                        ps = conn.prepare(UPSERT_BAR[interval]);
+                        statements[interval] = ps;
+                    }
+                    ps.setString(1, batch.getSymbol(i));
+                    ps.setLong(2, batch.getStart(i));
+                    ps.setDouble(3, batch.getOpen(i));
+                    ps.setDouble(4, batch.getHigh(i));
+                    ps.setDouble(5, batch.getLow(i));
+                    ps.setDouble(6, batch.getClose(i));
+                    ps.setInt(7, batch.getTickCount(i));
+                    ps.addBatch();
+                }
+                for (PreparedStatement ps : statements) {
+                    if (ps != null) ps.executeBatch();
+                }
+                conn.commit();
+                BARS_WRITTEN.add(batch.size());
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            SAVE_BARS_LATENCY.recordSince(start);
+        }
+    }
+    
+    public BarSeries loadBars(String symbol, BarInterval interval, long fromTimestamp, long toTimestamp, int limit) {
+        long start = System.nanoTime();
+        BarSeries bars = new BarSeries(Math.max(1, Math.min(limit, 1024)));
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement ps = conn.prepare(SELECT_BARS[interval.ordinal()]);
+            ps.setString(1, symbol);
+            ps.setLong(2, interval.start(fromTimestamp));
+            ps.setLong(3, toTimestamp);
+            ps.setInt(4, limit);
+            
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    if (bars.size() == bars.capacity()) bars = bars.copy(bars.capacity() * 2);
+                    bars.addBar(rs.getLong(1), rs.getDouble(2), rs.getDouble(3), rs.getDouble(4), rs.getDouble(5), rs.getInt(6));
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            LOAD_BARS_LATENCY.recordSince(start);
+        }
+        return bars;
+    }
+    
+    private static String[] barStatements(String template) {
+        BarInterval[] intervals = BarInterval.values();
+        String[] statements = new String[intervals.length];
+        for (BarInterval interval : intervals) {
+            statements[interval.ordinal()] = String.format(template, interval.getTable());
+        }
+        return statements;
+    }
+    
+    private static String multiRowPriceInsert(int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO price_history (symbol, price, timestamp) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "(?, ?, ?)" : ", (?, ?, ?)");
+        }
+        return sql.toString();
+    }
+    
+    private static int bindPriceRows(PreparedStatement ps, String[] symbols, double[] prices, long[] timestamps,
+                                     int from, int rows) throws SQLException {
+        int param = 1;
+        for (int i = from; i < from + rows; i++) {
+            ps.setString(param++, symbols[i]);
+            ps.setDouble(param++, prices[i]);
+            ps.setLong(param++, timestamps[i]);
+        }
+        return from + rows;
+    }
+    
+    public long loadPriceTicks(long afterRowId, long fromTimestamp, int limit, TickSink sink) {
+        long start = System.nanoTime();
+        long lastRowId = afterRowId;
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement ps = conn.prepare(SELECT_PRICE_TICKS);
+            ps.setLong(1, afterRowId);
+            ps.setLong(2, fromTimestamp);
+            ps.setInt(3, limit);
+            
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    lastRowId = rs.getLong(1);
+                    sink.onTick(rs.getString(2), rs.getDouble(3), rs.getLong(4));
+                }
+            }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            LOAD_TICKS_LATENCY.recordSince(start);
         }
+        return lastRowId;
     }
     
     public List<PriceHistory.PricePoint> loadPriceHistory(String symbol, int limit) {
+        long start = System.nanoTime();
         List<PriceHistory.PricePoint> history = new ArrayList<>();
-        try (Connection conn = DriverManager.getConnection(DB_URL)) {
-            PreparedStatement ps = conn.prepareStatement(
-                "SELECT * FROM price_history WHERE symbol = ? ORDER BY timestamp DESC LIMIT ?");
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement ps = conn.prepare(SELECT_PRICES);
             ps.setString(1, symbol);
             ps.setInt(2, limit);
-            ResultSet rs = ps.executeQuery();
             
-            while (rs.next()) {
-                history.add(new PriceHistory.PricePoint(
-                    rs.getDouble("price"),
-                    rs.getLong("timestamp")
-                ));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    history.add(new PriceHistory.PricePoint(
+                        rs.getDouble("price"),
+                        rs.getLong("timestamp")
+                    ));
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
+        } finally {
+            LOAD_PRICES_LATENCY.recordSince(start);
         }
         Collections.reverse(history);
         return history;
     }
+    
+    private static class PortfolioSnapshot implements HoldingVisitor {
+        private final String[] symbols;
+        private final int[] quantities;
+        private final double[] avgPrices;
+        private int count;
+        
+        PortfolioSnapshot(int size) {
+            this.symbols = new String[size];
+            this.quantities = new int[size];
+            this.avgPrices = new double[size];
+        }
+        
+        @Override
+        public void visit(String symbol, int quantity, double avgPrice, double mark) {
+            symbols[count] = symbol;
+            quantities[count] = quantity;
+            avgPrices[count] = avgPrice;
+            count++;
+        }
+    }
 }
@@ -0,0 +1,156 @@
+package database;
+
+import util.Counter;
+import util.Metrics;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class PriceHistoryWriter {
+    public static final int DEFAULT_CAPACITY = 65536;
+    public static final int DEFAULT_FLUSH_SIZE = 512;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+    
+    private static final Counter ROWS_DROPPED = Metrics.counter("db.priceRowsDropped");
+    
+    private final DatabaseManager dbManager;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    
+    private final String[] symbols;
+    private final double[] prices;
+    private final long[] timestamps;
+    private int head;
+    private int size;
+    
+    private final String[] batchSymbols;
+    private final double[] batchPrices;
+    private final long[] batchTimestamps;
+    
+    private final ReentrantLock lock;
+    private final Condition flushRequested;
+    private final Thread writer;
+    private volatile boolean closing;
+    
+    public PriceHistoryWriter(DatabaseManager dbManager) {
+        this(dbManager,
+            Integer.getInteger("trading.priceHistory.capacity", DEFAULT_CAPACITY),
+            Integer.getInteger("trading.priceHistory.flushSize", DEFAULT_FLUSH_SIZE),
+            Long.getLong("trading.priceHistory.flushIntervalMs", DEFAULT_FLUSH_INTERVAL_MS));
+    }
+    
+    public PriceHistoryWriter(DatabaseManager dbManager, int capacity, int flushSize, long flushIntervalMillis) {
+        if (capacity <= 0 || flushSize <= 0 || flushSize > capacity) {
+            throw new IllegalArgumentException("Invalid write-behind sizing: capacity=" + capacity + ", flushSize=" + flushSize);
+        }
+        this.dbManager = dbManager;
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.symbols = new String[capacity];
+        this.prices = new double[capacity];
+        this.timestamps = new long[capacity];
+        this.batchSymbols = new String[flushSize];
+        this.batchPrices = new double[flushSize];
+        this.batchTimestamps = new long[flushSize];
+        this.lock = new ReentrantLock();
+        this.flushRequested = lock.newCondition();
+        this.writer = new Thread(this::run, "price-history-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "price-history-flush"));
+    }
+    
+    public void enqueue(String[] rowSymbols, double[] rowPrices, long[] rowTimestamps, int count) {
+        int accepted;
+        lock.lock();
+        try {
+            accepted = Math.min(count, symbols.length - size);
+            int tail = head + size;
+            if (tail >= symbols.length) tail -= symbols.length;
+            for (int i = 0; i < accepted; i++) {
+                symbols[tail] = rowSymbols[i];
+                prices[tail] = rowPrices[i];
+                timestamps[tail] = rowTimestamps[i];
+                if (++tail == symbols.length) tail = 0;
+            }
+            size += accepted;
+            if (size >= flushSize) flushRequested.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (accepted < count) ROWS_DROPPED.add(count - accepted);
+    }
+    
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public void close() {
+        if (closing) {
+            joinWriter();
+            return;
+        }
+        lock.lock();
+        try {
+            closing = true;
+            flushRequested.signal();
+        } finally {
+            lock.unlock();
+        }
+        joinWriter();
+    }
+    
+    private void joinWriter() {
+        if (Thread.currentThread() == writer) return;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void run() {
+        while (true) {
+            int count;
+            boolean done;
+            lock.lock();
+            try {
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                long remaining = flushIntervalNanos;
+                while (size < flushSize && !closing && remaining > 0) {
+                    try {
+                        remaining = flushRequested.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        remaining = deadline - System.nanoTime();
+                    }
+                }
+                count = drain();
+                done = closing && size == 0;
+            } finally {
+                lock.unlock();
+            }
+            if (count > 0) {
+                dbManager.savePriceHistoryBatch(batchSymbols, batchPrices, batchTimestamps, count);
+            }
+            if (done) return;
+        }
+    }
+    
+    private int drain() {
+        int count = Math.min(size, batchSymbols.length);
+        for (int i = 0; i < count; i++) {
+            batchSymbols[i] = symbols[head];
+            batchPrices[i] = prices[head];
+            batchTimestamps[i] = timestamps[head];
+            symbols[head] = null;
+            if (++head == symbols.length) head = 0;
+        }
+        size -= count;
+        return count;
+    }
+}
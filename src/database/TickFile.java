@@ -0,0 +1,168 @@
+package database;
+
+import model.PriceSeries;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+
+public class TickFile implements AutoCloseable {
+    static final int SEGMENT_SHIFT = 20;
+    static final int SEGMENT_TICKS = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = SEGMENT_TICKS - 1;
+    
+    private final String symbol;
+    private final FileChannel priceChannel;
+    private final FileChannel timeChannel;
+    private volatile MappedByteBuffer[] priceSegments;
+    private volatile MappedByteBuffer[] timeSegments;
+    private volatile long count;
+    
+    public TickFile(Path directory, String symbol) throws IOException {
+        this.symbol = symbol;
+        Files.createDirectories(directory);
+        this.priceChannel = FileChannel.open(directory.resolve(symbol + ".px"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.timeChannel = FileChannel.open(directory.resolve(symbol + ".ts"),
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.priceSegments = new MappedByteBuffer[0];
+        this.timeSegments = new MappedByteBuffer[0];
+        
+        int existing = (int) ((timeChannel.size() + ((long) SEGMENT_TICKS * Long.BYTES) - 1) / ((long) SEGMENT_TICKS * Long.BYTES));
+        for (int i = 0; i < existing; i++) {
+            mapSegment(i);
+        }
+        this.count = recoverCount(existing);
+    }
+    
+    public String getSymbol() { return symbol; }
+    public long size() { return count; }
+    
+    public synchronized void append(double price, long timestamp) throws IOException {
+        long n = count;
+        int segment = (int) (n >>> SEGMENT_SHIFT);
+        if (segment == timeSegments.length) mapSegment(segment);
+        int offset = (int) (n & SEGMENT_MASK);
+        priceSegments[segment].putDouble(offset * Double.BYTES, price);
+        timeSegments[segment].putLong(offset * Long.BYTES, timestamp);
+        count = n + 1;
+    }
+    
+    public double getPrice(long index) {
+        checkIndex(index);
+        return priceSegments[(int) (index >>> SEGMENT_SHIFT)].getDouble((int) (index & SEGMENT_MASK) * Double.BYTES);
+    }
+    
+    public long getTimestamp(long index) {
+        checkIndex(index);
+        return timeSegments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & SEGMENT_MASK) * Long.BYTES);
+    }
+    
+    public PriceSeries range(long fromTimestamp, long toTimestamp) {
+        long end = count;
+        long from = lowerBound(fromTimestamp, end);
+        long to = lowerBound(toTimestamp, end);
+        return slice(from, to);
+    }
+    
+    public PriceSeries tail(int ticks) {
+        long end = count;
+        return slice(Math.max(0, end - ticks), end);
+    }
+    
+    public PriceSeries slice(long from, long to) {
+        if (from < 0 || to > count || from > to) {
+            throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), Size: " + count);
+        }
+        if (to - from > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Range too large for a single view: " + (to - from));
+        }
+        return new View(from, (int) (to - from));
+    }
+    
+    public synchronized void force() {
+        for (MappedByteBuffer segment : priceSegments) segment.force();
+        for (MappedByteBuffer segment : timeSegments) segment.force();
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        priceChannel.close();
+        timeChannel.close();
+    }
+    
+    private void mapSegment(int segment) throws IOException {
+        long priceBase = (long) segment * SEGMENT_TICKS * Double.BYTES;
+        long timeBase = (long) segment * SEGMENT_TICKS * Long.BYTES;
+        MappedByteBuffer px = priceChannel.map(FileChannel.MapMode.READ_WRITE, priceBase, (long) SEGMENT_TICKS * Double.BYTES);
+        MappedByteBuffer ts = timeChannel.map(FileChannel.MapMode.READ_WRITE, timeBase, (long) SEGMENT_TICKS * Long.BYTES);
+        MappedByteBuffer[] prices = Arrays.copyOf(priceSegments, segment + 1);
+        MappedByteBuffer[] times = Arrays.copyOf(timeSegments, segment + 1);
+        prices[segment] = px;
+        times[segment] = ts;
+        priceSegments = prices;
+        timeSegments = times;
+    }
+    
+    private long recoverCount(int segments) {
+        long low = 0;
+        long high = (long) segments * SEGMENT_TICKS;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (rawTimestamp(mid) != 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private long lowerBound(long timestamp, long end) {
+        long low = 0;
+        long high = end;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (rawTimestamp(mid) < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    private long rawTimestamp(long index) {
+        return timeSegments[(int) (index >>> SEGMENT_SHIFT)].getLong((int) (index & SEGMENT_MASK) * Long.BYTES);
+    }
+    
+    private void checkIndex(long index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+    }
+    
+    private class View implements PriceSeries {
+        private final long start;
+        private final int length;
+        
+        View(long start, int length) {
+            this.start = start;
+            this.length = length;
+        }
+        
+        @Override
+        public int size() { return length; }
+        
+        @Override
+        public double getPrice(int index) { return TickFile.this.getPrice(start + position(index)); }
+        
+        @Override
+        public long getTimestamp(int index) { return TickFile.this.getTimestamp(start + position(index)); }
+        
+        private int position(int index) {
+            if (index < 0 || index >= length) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+            return index;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package database;
+
+import model.PriceSeries;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class TickStore {
+    public static final String DEFAULT_DIRECTORY = "data/ticks";
+    
+    private final Path directory;
+    private final Map<String, TickFile> files;
+    private volatile boolean closed;
+    
+    public TickStore() {
+        this(Paths.get(System.getProperty("trading.ticks.dir", DEFAULT_DIRECTORY)));
+    }
+    
+    public TickStore(Path directory) {
+        this.directory = directory;
+        this.files = new ConcurrentHashMap<>();
+    }
+    
+    public TickFile open(String symbol) throws IOException {
+        if (closed) throw new IOException("Tick store is closed");
+        TickFile file = files.get(symbol);
+        if (file != null) return file;
+        synchronized (files) {
+            file = files.get(symbol);
+            if (file == null) {
+                file = new TickFile(directory, symbol);
+                files.put(symbol, file);
+            }
+            return file;
+        }
+    }
+    
+    public void append(String symbol, double price, long timestamp) {
+        try {
+            open(symbol).append(price, timestamp);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    public PriceSeries range(String symbol, long fromTimestamp, long toTimestamp) {
+        try {
+            return open(symbol).range(fromTimestamp, toTimestamp);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    public PriceSeries tail(String symbol, int ticks) {
+        try {
+            return open(symbol).tail(ticks);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+    
+    public void close() {
+        closed = true;
+        synchronized (files) {
+            for (TickFile file : files.values()) {
+                try {
+                    file.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+            files.clear();
+        }
+    }
+}
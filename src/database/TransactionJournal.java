@@ -0,0 +1,173 @@
+package database;
+
+import model.*;
+import util.Counter;
+import util.LatencyHistogram;
+import util.Metrics;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+public class TransactionJournal {
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+    public static final int DEFAULT_RECENT_TRANSACTIONS = 100;
+    
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String SELECT_HIGH_WATER_MARK =
+        "SELECT COALESCE(MAX(seq), 0) FROM transactions WHERE username = ?";
+    private static final String INSERT_TRANSACTION =
+        "INSERT INTO transactions (username, seq, symbol, type, quantity, price, timestamp) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final LatencyHistogram FLUSH_LATENCY = Metrics.histogram("db.journalFlush");
+    private static final Counter TRANSACTIONS_WRITTEN = Metrics.counter("db.transactionsWritten");
+    private static final Counter UNREADABLE_TIMESTAMPS = Metrics.counter("db.unreadableTimestamps");
+    private static final LocalDateTime UNKNOWN_TIME = LocalDateTime.ofEpochSecond(0, 0, ZoneOffset.UTC);
+    
+    private final ConnectionPool pool;
+    private final Map<String, Long> highWaterMarks;
+    private final int recentLimit;
+    private ScheduledExecutorService flusher;
+    
+    TransactionJournal(ConnectionPool pool) {
+        this.pool = pool;
+        this.highWaterMarks = new ConcurrentHashMap<>();
+        this.recentLimit = Integer.getInteger("trading.history.recent", DEFAULT_RECENT_TRANSACTIONS);
+    }
+    
+    public int getRecentLimit() {
+        return recentLimit;
+    }
+    
+    public synchronized void start(Supplier<? extends Collection<User>> accounts) {
+        if (flusher != null) return;
+        long interval = Long.getLong("trading.journal.flushIntervalMs", DEFAULT_FLUSH_INTERVAL_MS);
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "transaction-journal");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            for (User user : accounts.get()) {
+                flush(user);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    public void close() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = flusher;
+            flusher = null;
+        }
+        if (current == null) return;
+        current.shutdown();
+        try {
+            current.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public synchronized void flush(User user) {
+        try {
+            List<Transaction> pending = pending(user);
+            if (pending.isEmpty()) return;
+            long start = System.nanoTime();
+            
+            try (PooledConnection conn = pool.writer()) {
+                conn.begin();
+                try {
+                    write(conn, user.getUsername(), pending);
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                }
+            }
+            advance(user.getUsername(), pending);
+            trim(user);
+            FLUSH_LATENCY.recordSince(start);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    List<Transaction> pending(User user) throws SQLException {
+        long highWaterMark = highWaterMark(user.getUsername());
+        synchronized (user) {
+            List<Transaction> history = user.getTransactionHistory();
+            int start = history.size();
+            while (start > 0 && history.get(start - 1).getSequence() > highWaterMark) start--;
+            return new ArrayList<>(history.subList(start, history.size()));
+        }
+    }
+    
+    void write(PooledConnection conn, String username, List<Transaction> pending) throws SQLException {
+        if (pending.isEmpty()) return;
+        PreparedStatement ps = conn.prepare(INSERT_TRANSACTION);
+        for (Transaction t : pending) {
+            ps.setString(1, username);
+            ps.setLong(2, t.getSequence());
+            ps.setString(3, t.getStockSymbol());
+            ps.setString(4, t.getType());
+            ps.setInt(5, t.getQuantity());
+            ps.setDouble(6, t.getPricePerShare());
+            ps.setString(7, formatTimestamp(t.getTimestamp()));
+            ps.addBatch();
+        }
+        ps.executeBatch();
+    }
+    
+    void advance(String username, List<Transaction> written) {
+        if (written.isEmpty()) return;
+        highWaterMarks.put(username, written.get(written.size() - 1).getSequence());
+        TRANSACTIONS_WRITTEN.add(written.size());
+    }
+    
+    void trim(User user) {
+        Long flushed = highWaterMarks.get(user.getUsername());
+        if (flushed != null) user.trimTransactionHistory(flushed, recentLimit);
+    }
+    
+    private long highWaterMark(String username) throws SQLException {
+        Long cached = highWaterMarks.get(username);
+        if (cached != null) return cached;
+        
+        try (PooledConnection conn = pool.reader()) {
+            PreparedStatement ps = conn.prepare(SELECT_HIGH_WATER_MARK);
+            ps.setString(1, username);
+            try (ResultSet rs = ps.executeQuery()) {
+                long value = rs.next() ? rs.getLong(1) : 0;
+                highWaterMarks.put(username, value);
+                return value;
+            }
+        }
+    }
+    
+    static String formatTimestamp(LocalDateTime local) {
+        return local.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).format(TIMESTAMP_FORMAT);
+    }
+    
+    static LocalDateTime parseTimestamp(String username, long seq, String value) {
+        if (value == null) return unreadableTimestamp(username, seq, value);
+        try {
+            return LocalDateTime.parse(value, TIMESTAMP_FORMAT).atOffset(ZoneOffset.UTC)
+                .atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            return unreadableTimestamp(username, seq, value);
+        }
+    }
+    
+    private static LocalDateTime unreadableTimestamp(String username, long seq, String value) {
+        UNREADABLE_TIMESTAMPS.increment();
+        System.out.println("Unreadable timestamp '" + value + "' on transaction " + seq + " of " + username +
+            ", showing it as " + UNKNOWN_TIME);
+        return UNKNOWN_TIME;
+    }
+}
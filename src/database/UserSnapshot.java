@@ -0,0 +1,333 @@
+package database;
+
+import model.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.zip.CRC32;
+
+public final class UserSnapshot {
+    public static final int MAGIC = 0x54534E50;
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = 16;
+    
+    private static final byte BUY = 0;
+    private static final byte SELL = 1;
+    private static final byte OTHER = 2;
+    
+    private UserSnapshot() {}
+    
+    public static void write(User user, Path file) throws IOException {
+        ByteBuffer payload;
+        synchronized (user) {
+            payload = encode(user);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putShort(VERSION).putShort((short) 0)
+              .putInt(payload.remaining()).putInt((int) crc.getValue());
+        header.flip();
+        
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer[] buffers = {header, payload};
+            while (payload.hasRemaining()) {
+                channel.write(buffers);
+            }
+            channel.force(true);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    public static User read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, file);
+            header.flip();
+            if (header.getInt() != MAGIC) throw new IOException("Not a user snapshot: " + file);
+            short version = header.getShort();
+            if (version > VERSION) throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            header.getShort();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            if (length < 0 || length != channel.size() - HEADER_BYTES) {
+                throw new IOException("Truncated user snapshot: " + file);
+            }
+            
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            readFully(channel, payload, file);
+            payload.flip();
+            CRC32 crc = new CRC32();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) throw new IOException("Checksum mismatch: " + file);
+            try {
+                return decode(new Decoder(payload));
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt user snapshot: " + file, e);
+            }
+        }
+    }
+    
+    static ByteBuffer encode(User user) {
+        Encoder out = new Encoder(256 + user.getTransactionHistory().size() * 24);
+        Map<String, Integer> symbols = new LinkedHashMap<>();
+        Portfolio portfolio = user.getPortfolio();
+        portfolio.forEach((symbol, qty, avgPrice, mark) -> symbols.putIfAbsent(symbol, symbols.size()));
+        for (Transaction t : user.getTransactionHistory()) symbols.putIfAbsent(t.getStockSymbol(), symbols.size());
+        Set<String> watched = user.getWatchlist().getSymbols();
+        for (String symbol : watched) symbols.putIfAbsent(symbol, symbols.size());
+        List<PriceAlert> alerts = user.getWatchlist().getAllAlerts();
+        for (PriceAlert alert : alerts) symbols.putIfAbsent(alert.getSymbol(), symbols.size());
+        List<Order> orders = user.getOrderBook().getAllOrders();
+        for (Order order : orders) symbols.putIfAbsent(order.getSymbol(), symbols.size());
+        
+        out.putString(user.getUsername());
+        out.putDouble(user.getBalance());
+        out.putVarLong(symbols.size());
+        for (String symbol : symbols.keySet()) out.putString(symbol);
+        
+        out.putVarLong(portfolio.size());
+        portfolio.forEach((symbol, qty, avgPrice, mark) -> {
+            out.putVarLong(symbols.get(symbol));
+            out.putVarLong(qty);
+            out.putDouble(avgPrice);
+        });
+        
+        List<Transaction> history = user.getTransactionHistory();
+        out.putVarLong(history.size());
+        long previousSeq = 0;
+        long previousSecond = 0;
+        for (Transaction t : history) {
+            out.putVarLong(symbols.get(t.getStockSymbol()));
+            putAction(out, t.getType());
+            out.putVarLong(t.getQuantity());
+            out.putDouble(t.getPricePerShare());
+            out.putSignedVarLong(t.getSequence() - previousSeq);
+            previousSeq = t.getSequence();
+            long second = t.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            out.putSignedVarLong(second - previousSecond);
+            out.putVarLong(t.getTimestamp().getNano());
+            previousSecond = second;
+        }
+        
+        out.putVarLong(watched.size());
+        for (String symbol : watched) out.putVarLong(symbols.get(symbol));
+        
+        out.putVarLong(alerts.size());
+        for (PriceAlert alert : alerts) {
+            out.putString(alert.getAlertId());
+            out.putVarLong(symbols.get(alert.getSymbol()));
+            out.putByte((byte) alert.getDirection().ordinal());
+            out.putDouble(alert.getLevel());
+            putTime(out, alert.getCreatedAt());
+        }
+        
+        out.putVarLong(orders.size());
+        for (Order order : orders) {
+            out.putString(order.getOrderId());
+            out.putVarLong(symbols.get(order.getSymbol()));
+            putAction(out, order.getAction());
+            out.putVarLong(order.getQuantity());
+            out.putByte((byte) order.getType().ordinal());
+            out.putDouble(order.getTargetPrice());
+            out.putByte((byte) order.getStatus().ordinal());
+            putTime(out, order.getCreatedAt());
+        }
+        return out.finish();
+    }
+    
+    static User decode(Decoder in) {
+        String username = in.getString();
+        User user = new User(username, in.getDouble());
+        String[] symbols = new String[in.getCount()];
+        for (int i = 0; i < symbols.length; i++) symbols[i] = in.getString();
+        
+        int positions = in.getCount();
+        for (int i = 0; i < positions; i++) {
+            String symbol = symbols[in.getCount()];
+            int quantity = in.getCount();
+            user.getPortfolio().addStock(symbol, quantity, in.getDouble());
+        }
+        
+        int transactions = in.getCount();
+        long seq = 0;
+        long second = 0;
+        for (int i = 0; i < transactions; i++) {
+            String symbol = symbols[in.getCount()];
+            String type = getAction(in);
+            int quantity = in.getCount();
+            double price = in.getDouble();
+            seq += in.getSignedVarLong();
+            second += in.getSignedVarLong();
+            LocalDateTime timestamp = LocalDateTime.ofEpochSecond(second, in.getCount(), ZoneOffset.UTC);
+            user.addTransaction(new Transaction(symbol, type, quantity, price, timestamp, seq));
+        }
+        
+        int watched = in.getCount();
+        for (int i = 0; i < watched; i++) user.getWatchlist().addSymbol(symbols[in.getCount()]);
+        
+        int alerts = in.getCount();
+        for (int i = 0; i < alerts; i++) {
+            String alertId = in.getString();
+            String symbol = symbols[in.getCount()];
+            PriceAlert.Direction direction = PriceAlert.Direction.values()[in.getByte()];
+            double level = in.getDouble();
+            user.getWatchlist().addAlert(new PriceAlert(alertId, username, symbol, direction, level, getTime(in)));
+        }
+        
+        int orders = in.getCount();
+        for (int i = 0; i < orders; i++) {
+            String orderId = in.getString();
+            String symbol = symbols[in.getCount()];
+            String action = getAction(in);
+            int quantity = in.getCount();
+            Order.OrderType type = Order.OrderType.values()[in.getByte()];
+            double targetPrice = in.getDouble();
+            Order.OrderStatus status = Order.OrderStatus.values()[in.getByte()];
+            user.getOrderBook().addOrder(new Order(orderId, symbol, action, quantity, type, targetPrice, status, getTime(in)));
+        }
+        return user;
+    }
+    
+    private static void putAction(Encoder out, String action) {
+        if ("BUY".equals(action)) {
+            out.putByte(BUY);
+        } else if ("SELL".equals(action)) {
+            out.putByte(SELL);
+        } else {
+            out.putByte(OTHER);
+            out.putString(action);
+        }
+    }
+    
+    private static String getAction(Decoder in) {
+        byte code = in.getByte();
+        if (code == BUY) return "BUY";
+        if (code == SELL) return "SELL";
+        return in.getString();
+    }
+    
+    private static void putTime(Encoder out, LocalDateTime time) {
+        out.putSignedVarLong(time.toEpochSecond(ZoneOffset.UTC));
+        out.putVarLong(time.getNano());
+    }
+    
+    private static LocalDateTime getTime(Decoder in) {
+        long second = in.getSignedVarLong();
+        return LocalDateTime.ofEpochSecond(second, in.getCount(), ZoneOffset.UTC);
+    }
+    
+    private static void readFully(FileChannel channel, ByteBuffer buffer, Path file) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) throw new IOException("Truncated user snapshot: " + file);
+        }
+    }
+    
+    static final class Encoder {
+        private ByteBuffer buffer;
+        
+        Encoder(int capacity) {
+            this.buffer = ByteBuffer.allocate(Math.max(64, capacity));
+        }
+        
+        void putByte(byte value) {
+            ensure(1);
+            buffer.put(value);
+        }
+        
+        void putDouble(double value) {
+            ensure(8);
+            buffer.putDouble(value);
+        }
+        
+        void putVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer.put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            buffer.put((byte) value);
+        }
+        
+        void putSignedVarLong(long value) {
+            putVarLong((value << 1) ^ (value >> 63));
+        }
+        
+        void putString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(bytes.length);
+            ensure(bytes.length);
+            buffer.put(bytes);
+        }
+        
+        ByteBuffer finish() {
+            buffer.flip();
+            return buffer;
+        }
+        
+        private void ensure(int bytes) {
+            if (buffer.remaining() >= bytes) return;
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            buffer.flip();
+            grown.put(buffer);
+            buffer = grown;
+        }
+    }
+    
+    static final class Decoder {
+        private final ByteBuffer buffer;
+        
+        Decoder(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+        
+        byte getByte() {
+            return buffer.get();
+        }
+        
+        double getDouble() {
+            return buffer.getDouble();
+        }
+        
+        long getVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+            throw new IllegalStateException("Malformed varint");
+        }
+        
+        long getSignedVarLong() {
+            long raw = getVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+        
+        int getCount() {
+            long value = getVarLong();
+            if (value > Integer.MAX_VALUE) throw new IllegalStateException("Count out of range: " + value);
+            return (int) value;
+        }
+        
+        String getString() {
+            byte[] bytes = new byte[getCount()];
+            buffer.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
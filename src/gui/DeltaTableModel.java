@@ -0,0 +1,166 @@
+package gui;
+
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+
+public class DeltaTableModel extends AbstractTableModel {
+    private final String[] columns;
+    private final int actionColumn;
+    private final List<Row> rows;
+    private final Map<Object, Row> rowsByKey;
+    private final List<Row> pending;
+    private final Map<Object, Row> pendingByKey;
+    private int insertFrom;
+    private int insertTo;
+    
+    public DeltaTableModel(String[] columns, int actionColumn) {
+        this.columns = columns.clone();
+        this.actionColumn = actionColumn;
+        this.rows = new ArrayList<>();
+        this.rowsByKey = new HashMap<>();
+        this.pending = new ArrayList<>();
+        this.pendingByKey = new HashMap<>();
+        this.insertFrom = -1;
+    }
+    
+    public void begin() {
+        pending.clear();
+        pendingByKey.clear();
+    }
+    
+    public void put(Object key, Object... values) {
+        if (values.length != columns.length) {
+            throw new IllegalArgumentException("Expected " + columns.length + " values, got " + values.length);
+        }
+        Row row = new Row(key, values);
+        if (pendingByKey.putIfAbsent(key, row) == null) pending.add(row);
+    }
+    
+    public void end() {
+        removeStale();
+        for (int p = 0; p < pending.size(); p++) {
+            Row next = pending.get(p);
+            Row current = p < rows.size() ? rows.get(p) : null;
+            if (current != null && current.key.equals(next.key)) {
+                flushInserts();
+                updateCells(p, current, next.cells);
+            } else if (rowsByKey.containsKey(next.key)) {
+                flushInserts();
+                move(next.key, p);
+                updateCells(p, rows.get(p), next.cells);
+            } else {
+                insert(p, next);
+            }
+        }
+        flushInserts();
+        pending.clear();
+        pendingByKey.clear();
+    }
+    
+    public boolean setValue(Object key, int col, Object value) {
+        Row row = rowsByKey.get(key);
+        if (row == null || Objects.equals(row.cells[col], value)) return false;
+        row.cells[col] = value;
+        return true;
+    }
+    
+    public void fireColumnUpdated(int col) {
+        if (!rows.isEmpty()) fireTableChanged(new TableModelEvent(this, 0, rows.size() - 1, col));
+    }
+    
+    public Object getKeyAt(int row) {
+        return rows.get(row).key;
+    }
+    
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+    
+    @Override
+    public String getColumnName(int col) {
+        return columns[col];
+    }
+    
+    @Override
+    public Object getValueAt(int row, int col) {
+        return rows.get(row).cells[col];
+    }
+    
+    @Override
+    public boolean isCellEditable(int row, int col) {
+        return col == actionColumn;
+    }
+    
+    private void removeStale() {
+        int to = -1;
+        for (int i = rows.size() - 1; i >= 0; i--) {
+            Row row = rows.get(i);
+            if (pendingByKey.containsKey(row.key)) {
+                if (to >= 0) {
+                    removeRange(i + 1, to);
+                    to = -1;
+                }
+            } else if (to < 0) {
+                to = i;
+            }
+        }
+        if (to >= 0) removeRange(0, to);
+    }
+    
+    private void removeRange(int from, int to) {
+        List<Row> removed = rows.subList(from, to + 1);
+        for (Row row : removed) {
+            rowsByKey.remove(row.key);
+        }
+        removed.clear();
+        fireTableRowsDeleted(from, to);
+    }
+    
+    private void move(Object key, int to) {
+        int from = to + 1;
+        while (!rows.get(from).key.equals(key)) from++;
+        Row row = rows.remove(from);
+        fireTableRowsDeleted(from, from);
+        rows.add(to, row);
+        fireTableRowsInserted(to, to);
+    }
+    
+    private void insert(int p, Row row) {
+        rows.add(p, row);
+        rowsByKey.put(row.key, row);
+        if (insertFrom < 0) insertFrom = p;
+        insertTo = p;
+    }
+    
+    private void flushInserts() {
+        if (insertFrom < 0) return;
+        fireTableRowsInserted(insertFrom, insertTo);
+        insertFrom = -1;
+    }
+    
+    private void updateCells(int p, Row current, Object[] cells) {
+        for (int col = 0; col < cells.length; col++) {
+            if (!Objects.equals(current.cells[col], cells[col])) {
+                current.cells[col] = cells[col];
+                fireTableCellUpdated(p, col);
+            }
+        }
+    }
+    
+    private static final class Row {
+        private final Object key;
+        private final Object[] cells;
+        
+        Row(Object key, Object[] cells) {
+            this.key = key;
+            this.cells = cells;
+        }
+    }
+}
@@ -1,23 +1,41 @@
 package gui;
 
+import service.MarketEngine;
+import service.MarketSnapshot;
+import service.TickSubscription;
 import service.TradingPlatform;
 import model.*;
 import javax.swing.*;
 import javax.swing.table.*;
 import java.awt.*;
-import java.util.Map;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class TradingGUI extends JFrame {
+    private static final int HISTORY_PAGE_SIZE = 100;
+    private static final int MAX_CHARTS = 6;
+    
     private TradingPlatform platform;
     private JTable marketTable, portfolioTable, transactionTable, watchlistTable, ordersTable;
+    private DeltaTableModel marketModel, portfolioModel, watchlistModel, ordersModel;
+    private TransactionHistoryModel transactionModel;
     private JLabel balanceLabel, netWorthLabel, plLabel;
-    private javax.swing.Timer autoUpdateTimer;
+    private MarketEngine engine;
+    private AtomicReference<MarketSnapshot> pendingSnapshot;
+    private boolean firstQuoteShown;
+    private TickSubscription quoteTicks;
     private java.util.List<util.ChartPanel> chartPanels;
+    private java.util.List<String> chartSymbols;
+    private JPanel chartsPanel;
     
     public TradingGUI() {
         platform = new TradingPlatform();
+        engine = new MarketEngine(platform);
+        pendingSnapshot = new AtomicReference<>();
         chartPanels = new java.util.ArrayList<>();
+        chartSymbols = new java.util.ArrayList<>();
         initUI();
+        quoteTicks = platform.getMarketData().getTickBus().subscribe("gui", () -> SwingUtilities.invokeLater(this::renderQuotes));
         startAutoUpdate();
     }
     
@@ -35,11 +53,13 @@ public class TradingGUI extends JFrame {
         mainPanel.add(createBottomPanel(), BorderLayout.SOUTH);
         
         add(mainPanel);
-        updateAllData();
         
         addWindowListener(new java.awt.event.WindowAdapter() {
             public void windowClosing(java.awt.event.WindowEvent e) {
-                platform.saveUser();
+                engine.stop();
+                quoteTicks.close();
+                transactionModel.close();
+                platform.shutdown();
             }
         });
     }
@@ -88,12 +108,11 @@ public class TradingGUI extends JFrame {
         panel.setBorder(BorderFactory.createTitledBorder("Market Data"));
         
         String[] columns = {"Symbol", "Name", "Price", "Action"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            public boolean isCellEditable(int row, int col) { return col == 3; }
-        };
+        marketModel = new DeltaTableModel(columns, 3);
         
-        marketTable = new JTable(model);
+        marketTable = new JTable(marketModel);
         marketTable.setRowHeight(30);
+        marketTable.getColumn("Price").setCellRenderer(new MoneyRenderer());
         marketTable.getColumn("Action").setCellRenderer(new ButtonRenderer());
         marketTable.getColumn("Action").setCellEditor(new ButtonEditor(new JCheckBox(), this));
         
@@ -101,10 +120,7 @@ public class TradingGUI extends JFrame {
         panel.add(scrollPane, BorderLayout.CENTER);
         
         JButton refreshBtn = new JButton("Refresh Prices");
-        refreshBtn.addActionListener(e -> {
-            platform.updateMarket();
-            updateAllData();
-        });
+        refreshBtn.addActionListener(e -> engine.update());
         panel.add(refreshBtn, BorderLayout.SOUTH);
         
         return panel;
@@ -115,12 +131,13 @@ public class TradingGUI extends JFrame {
         panel.setBorder(BorderFactory.createTitledBorder("My Portfolio"));
         
         String[] columns = {"Symbol", "Shares", "Avg Price", "Current", "Value", "P/L", "Action"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            public boolean isCellEditable(int row, int col) { return col == 6; }
-        };
+        portfolioModel = new DeltaTableModel(columns, 6);
         
-        portfolioTable = new JTable(model);
+        portfolioTable = new JTable(portfolioModel);
         portfolioTable.setRowHeight(30);
+        for (String column : new String[]{"Avg Price", "Current", "Value", "P/L"}) {
+            portfolioTable.getColumn(column).setCellRenderer(new MoneyRenderer());
+        }
         portfolioTable.getColumn("Action").setCellRenderer(new ButtonRenderer());
         portfolioTable.getColumn("Action").setCellEditor(new ButtonEditor(new JCheckBox(), this));
         
@@ -130,41 +147,62 @@ public class TradingGUI extends JFrame {
     
     private JPanel createBottomPanel() {
         JPanel panel = new JPanel(new BorderLayout());
-        panel.setBorder(BorderFactory.createTitledBorder("Recent Transactions"));
+        panel.setBorder(BorderFactory.createTitledBorder("Transaction History"));
         
-        String[] columns = {"Time", "Type", "Symbol", "Shares", "Price", "Total"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            public boolean isCellEditable(int row, int col) { return false; }
-        };
+        transactionModel = new TransactionHistoryModel(
+            before -> platform.getTransactionPage(null, before, HISTORY_PAGE_SIZE), HISTORY_PAGE_SIZE);
         
-        transactionTable = new JTable(model);
+        transactionTable = new JTable(transactionModel);
         transactionTable.setRowHeight(25);
-        panel.add(new JScrollPane(transactionTable), BorderLayout.CENTER);
+        transactionTable.getColumn("Price").setCellRenderer(new MoneyRenderer());
+        transactionTable.getColumn("Total").setCellRenderer(new MoneyRenderer());
+        JScrollPane scrollPane = new JScrollPane(transactionTable);
+        scrollPane.getVerticalScrollBar().addAdjustmentListener(e -> {
+            BoundedRangeModel range = scrollPane.getVerticalScrollBar().getModel();
+            if (range.getValue() + range.getExtent() >= range.getMaximum() - 2 * range.getExtent()) {
+                transactionModel.loadMore();
+            }
+        });
+        panel.add(scrollPane, BorderLayout.CENTER);
         panel.setPreferredSize(new Dimension(0, 200));
+        transactionModel.loadMore();
         
         return panel;
     }
     
-    private void updateAllData() {
-        updateAccountInfo();
-        updateMarketTable();
-        updatePortfolioTable();
-        updateTransactionTable();
-        if (watchlistTable != null) updateWatchlistTable();
-        if (ordersTable != null) updateOrdersTable();
-        if (!chartPanels.isEmpty()) updateAllCharts();
+    private void onSnapshot(MarketSnapshot snapshot) {
+        if (pendingSnapshot.getAndSet(snapshot) == null) {
+            SwingUtilities.invokeLater(this::renderLatest);
+        }
+    }
+    
+    private void renderLatest() {
+        MarketSnapshot snapshot = pendingSnapshot.getAndSet(null);
+        if (snapshot == null) return;
+        updateAccountInfo(snapshot);
+        updateMarketTable(snapshot);
+        updatePortfolioTable(snapshot);
+        updateTransactionTable(snapshot);
+        updateWatchlistTable(snapshot);
+        updateOrdersTable(snapshot);
+        updateChartSymbols(snapshot);
+        updateAllCharts(snapshot);
+        if (!firstQuoteShown) {
+            firstQuoteShown = true;
+            platform.getStartupTimer().mark("first quote");
+            platform.getStartupTimer().printReport();
+        }
     }
     
     private JPanel createWatchlistPanel() {
         JPanel panel = new JPanel(new BorderLayout());
         
         String[] columns = {"Symbol", "Price", "Alert", "Action"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            public boolean isCellEditable(int row, int col) { return col == 3; }
-        };
+        watchlistModel = new DeltaTableModel(columns, 3);
         
-        watchlistTable = new JTable(model);
+        watchlistTable = new JTable(watchlistModel);
         watchlistTable.setRowHeight(30);
+        watchlistTable.getColumn("Price").setCellRenderer(new MoneyRenderer());
         watchlistTable.getColumn("Action").setCellRenderer(new ButtonRenderer());
         watchlistTable.getColumn("Action").setCellEditor(new WatchlistButtonEditor(new JCheckBox(), this));
         
@@ -183,12 +221,11 @@ public class TradingGUI extends JFrame {
         JPanel panel = new JPanel(new BorderLayout());
         
         String[] columns = {"Order ID", "Type", "Symbol", "Qty", "Target Price", "Status", "Action"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0) {
-            public boolean isCellEditable(int row, int col) { return col == 6; }
-        };
+        ordersModel = new DeltaTableModel(columns, 6);
         
-        ordersTable = new JTable(model);
+        ordersTable = new JTable(ordersModel);
         ordersTable.setRowHeight(30);
+        ordersTable.getColumn("Target Price").setCellRenderer(new MoneyRenderer());
         ordersTable.getColumn("Action").setCellRenderer(new ButtonRenderer());
         ordersTable.getColumn("Action").setCellEditor(new OrderButtonEditor(new JCheckBox(), this));
         
@@ -207,69 +244,81 @@ public class TradingGUI extends JFrame {
     }
     
     private JPanel createChartsPanel() {
-        JPanel panel = new JPanel(new GridLayout(2, 3, 10, 10));
-        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
-        
-        for (Stock stock : platform.getMarketData().getAllStocks().values()) {
-            util.ChartPanel chart = new util.ChartPanel(stock.getSymbol());
-            chartPanels.add(chart);
-            updateChart(chart, stock.getSymbol());
-            panel.add(chart);
-        }
-        
-        return panel;
+        chartsPanel = new JPanel(new GridLayout(2, 3, 10, 10));
+        chartsPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        return chartsPanel;
     }
     
-    private void updateChart(util.ChartPanel chart, String symbol) {
-        PriceHistory history = platform.getMarketData().getPriceHistory(symbol);
-        if (history != null && !history.getHistory().isEmpty()) {
-            chart.setData(history.getHistory());
+    private void updateChartSymbols(MarketSnapshot snapshot) {
+        List<String> symbols = new java.util.ArrayList<>(MAX_CHARTS);
+        for (MarketSnapshot.WatchEntry entry : snapshot.getWatchlist()) {
+            if (symbols.size() == MAX_CHARTS) break;
+            symbols.add(entry.getSymbol());
+        }
+        for (int i = 0; i < snapshot.getQuoteCount() && symbols.size() < MAX_CHARTS; i++) {
+            if (!symbols.contains(snapshot.getSymbol(i))) symbols.add(snapshot.getSymbol(i));
         }
+        if (symbols.equals(chartSymbols)) return;
+        
+        chartSymbols = symbols;
+        chartsPanel.removeAll();
+        chartPanels.clear();
+        for (String symbol : symbols) {
+            util.ChartPanel chart = new util.ChartPanel(symbol);
+            chartPanels.add(chart);
+            chartsPanel.add(chart);
+        }
+        chartsPanel.revalidate();
+        chartsPanel.repaint();
+        engine.setChartSymbols(symbols);
+        engine.refresh();
     }
     
-    private void updateAllCharts() {
+    private void updateAllCharts(MarketSnapshot snapshot) {
         for (util.ChartPanel chart : chartPanels) {
-            PriceHistory history = platform.getMarketData().getPriceHistory(chart.getSymbol());
-            if (history != null) {
-                chart.setData(history.getHistory());
+            PriceSeries series = snapshot.getChart(chart.getSymbol());
+            if (series != null) {
+                chart.setData(series);
             }
         }
     }
     
-    private void updateWatchlistTable() {
-        DefaultTableModel model = (DefaultTableModel) watchlistTable.getModel();
-        model.setRowCount(0);
-        
-        Watchlist watchlist = platform.getUser().getWatchlist();
-        for (String symbol : watchlist.getSymbols()) {
-            Stock stock = platform.getMarketData().getStock(symbol);
-            if (stock != null) {
-                Double alert = watchlist.getAlert(symbol);
-                model.addRow(new Object[]{
-                    symbol,
-                    String.format("$%.2f", stock.getCurrentPrice()),
-                    alert != null ? String.format("$%.2f", alert) : "None",
-                    "Remove"
-                });
+    private void updateWatchlistTable(MarketSnapshot snapshot) {
+        DeltaTableModel model = watchlistModel;
+        model.begin();
+        
+        for (MarketSnapshot.WatchEntry entry : snapshot.getWatchlist()) {
+            List<PriceAlert> alerts = entry.getAlerts();
+            StringBuilder alertText = new StringBuilder();
+            for (PriceAlert alert : alerts) {
+                if (alertText.length() > 0) alertText.append(", ");
+                alertText.append(alert.getDirection() == PriceAlert.Direction.ABOVE ? "Above " : "Below ")
+                         .append(String.format("$%.2f", alert.getLevel()));
             }
+            model.put(entry.getSymbol(),
+                entry.getSymbol(),
+                entry.getPrice(),
+                alerts.isEmpty() ? "None" : alertText.toString(),
+                "Remove");
         }
+        model.end();
     }
     
-    private void updateOrdersTable() {
-        DefaultTableModel model = (DefaultTableModel) ordersTable.getModel();
-        model.setRowCount(0);
+    private void updateOrdersTable(MarketSnapshot snapshot) {
+        DeltaTableModel model = ordersModel;
+        model.begin();
         
-        for (Order order : platform.getUser().getOrderBook().getAllOrders()) {
-            model.addRow(new Object[]{
+        for (MarketSnapshot.OrderRow order : snapshot.getOrders()) {
+            model.put(order.getOrderId(),
                 order.getOrderId(),
                 order.getType(),
                 order.getSymbol(),
                 order.getQuantity(),
-                String.format("$%.2f", order.getTargetPrice()),
+                order.getTargetPrice(),
                 order.getStatus(),
-                "Cancel"
-            });
+                "Cancel");
         }
+        model.end();
     }
     
     private void showAddWatchlistDialog() {
@@ -278,16 +327,16 @@ public class TradingGUI extends JFrame {
             JOptionPane.QUESTION_MESSAGE, null, symbols, symbols[0]);
         
         if (symbol != null) {
-            platform.getUser().getWatchlist().addSymbol(symbol);
+            platform.addToWatchlist(symbol);
             
             String priceStr = JOptionPane.showInputDialog(this, "Set price alert (optional):", "");
             if (priceStr != null && !priceStr.isEmpty()) {
                 try {
                     double price = Double.parseDouble(priceStr);
-                    platform.getUser().getWatchlist().setAlert(symbol, price);
+                    platform.addAlert(symbol, price);
                 } catch (NumberFormatException e) {}
             }
-            updateWatchlistTable();
+            engine.refresh();
         }
     }
     
@@ -312,21 +361,20 @@ public class TradingGUI extends JFrame {
                 int qty = Integer.parseInt(qtyStr);
                 double price = Double.parseDouble(priceStr);
                 Order order = new Order(symbol, action, qty, type, price);
-                platform.getUser().getOrderBook().addOrder(order);
-                updateOrdersTable();
-                JOptionPane.showMessageDialog(this, "Order created successfully!");
+                platform.getSequencer().placeOrder(order).thenRunAsync(() ->
+                    JOptionPane.showMessageDialog(this, "Order created successfully!"), SwingUtilities::invokeLater);
+                engine.refresh();
             } catch (NumberFormatException e) {
                 JOptionPane.showMessageDialog(this, "Invalid input!");
             }
         }
     }
     
-    private void updateAccountInfo() {
-        User user = platform.getUser();
-        double balance = user.getBalance();
-        double portfolioValue = user.getPortfolio().calculateTotalValue(platform.getMarketData().getAllStocks());
-        double pl = user.getPortfolio().calculateProfitLoss(platform.getMarketData().getAllStocks());
-        double invested = portfolioValue - pl;
+    private void updateAccountInfo(MarketSnapshot snapshot) {
+        double balance = snapshot.getBalance();
+        double portfolioValue = snapshot.getMarketValue();
+        double pl = snapshot.getUnrealizedProfitLoss();
+        double invested = snapshot.getCostBasis();
         
         balanceLabel.setText(String.format("Balance: $%.2f", balance));
         netWorthLabel.setText(String.format("Net Worth: $%.2f", balance + portfolioValue));
@@ -334,65 +382,46 @@ public class TradingGUI extends JFrame {
         plLabel.setForeground(pl >= 0 ? new Color(0, 150, 0) : Color.RED);
     }
     
-    private void updateMarketTable() {
-        DefaultTableModel model = (DefaultTableModel) marketTable.getModel();
-        model.setRowCount(0);
-        
-        for (Stock stock : platform.getMarketData().getAllStocks().values()) {
-            model.addRow(new Object[]{
-                stock.getSymbol(),
-                stock.getName(),
-                String.format("$%.2f", stock.getCurrentPrice()),
-                "Trade"
-            });
+    private void renderQuotes() {
+        if (quoteTicks.drain((symbol, price, timestamp) -> marketModel.setValue(symbol, 2, price)) > 0) {
+            marketModel.fireColumnUpdated(2);
         }
     }
     
-    private void updatePortfolioTable() {
-        DefaultTableModel model = (DefaultTableModel) portfolioTable.getModel();
-        model.setRowCount(0);
-        
-        Portfolio portfolio = platform.getUser().getPortfolio();
-        for (Map.Entry<String, Integer> entry : portfolio.getHoldings().entrySet()) {
-            String symbol = entry.getKey();
-            int qty = entry.getValue();
-            double avgPrice = portfolio.getAvgPrice(symbol);
-            Stock stock = platform.getMarketData().getStock(symbol);
-            if (stock == null) continue;
-            
-            double currentPrice = stock.getCurrentPrice();
-            double value = currentPrice * qty;
-            double pl = (currentPrice - avgPrice) * qty;
-            
-            model.addRow(new Object[]{
-                symbol,
-                qty,
-                String.format("$%.2f", avgPrice),
-                String.format("$%.2f", currentPrice),
-                String.format("$%.2f", value),
-                String.format("$%.2f", pl),
-                "Sell"
-            });
+    private void updateMarketTable(MarketSnapshot snapshot) {
+        DeltaTableModel model = marketModel;
+        if (model.getRowCount() == snapshot.getQuoteCount()) return;
+        model.begin();
+        
+        for (int i = 0; i < snapshot.getQuoteCount(); i++) {
+            model.put(snapshot.getSymbol(i),
+                snapshot.getSymbol(i),
+                snapshot.getName(i),
+                snapshot.getPrice(i),
+                "Trade");
         }
+        model.end();
     }
     
-    private void updateTransactionTable() {
-        DefaultTableModel model = (DefaultTableModel) transactionTable.getModel();
-        model.setRowCount(0);
-        
-        java.util.List<Transaction> transactions = platform.getUser().getTransactionHistory();
-        int start = Math.max(0, transactions.size() - 10);
-        for (int i = transactions.size() - 1; i >= start; i--) {
-            Transaction t = transactions.get(i);
-            model.addRow(new Object[]{
-                new java.text.SimpleDateFormat("HH:mm:ss").format(new java.util.Date()),
-                t.getType(),
-                t.getStockSymbol(),
-                t.getQuantity(),
-                String.format("$%.2f", t.getPricePerShare()),
-                String.format("$%.2f", t.getTotalAmount())
-            });
+    private void updatePortfolioTable(MarketSnapshot snapshot) {
+        DeltaTableModel model = portfolioModel;
+        model.begin();
+        
+        for (MarketSnapshot.Position position : snapshot.getPositions()) {
+            model.put(position.getSymbol(),
+                position.getSymbol(),
+                position.getQuantity(),
+                position.getAvgPrice(),
+                position.getPrice(),
+                position.getValue(),
+                position.getProfitLoss(),
+                "Sell");
         }
+        model.end();
+    }
+    
+    private void updateTransactionTable(MarketSnapshot snapshot) {
+        transactionModel.applyRecent(snapshot.getRecentTransactions());
     }
     
     private void showTradeDialog(String symbol, boolean isBuy) {
@@ -420,20 +449,24 @@ public class TradingGUI extends JFrame {
         if (result == JOptionPane.OK_OPTION) {
             int qty = (Integer) qtySpinner.getValue();
             if (isBuy) {
-                platform.buyStock(symbol, qty);
+                platform.getSequencer().buy(null, symbol, qty);
             } else {
-                platform.sellStock(symbol, qty);
+                platform.getSequencer().sell(null, symbol, qty);
             }
-            updateAllData();
+            engine.refresh();
         }
     }
     
     private void startAutoUpdate() {
-        autoUpdateTimer = new javax.swing.Timer(10000, e -> {
-            platform.updateMarket();
-            updateAllData();
-        });
-        autoUpdateTimer.start();
+        engine.addListener(this::onSnapshot);
+        engine.start();
+    }
+    
+    static class MoneyRenderer extends DefaultTableCellRenderer {
+        @Override
+        protected void setValue(Object value) {
+            setText(value instanceof Number ? String.format("$%.2f", ((Number) value).doubleValue()) : "");
+        }
     }
     
     class ButtonRenderer extends JButton implements TableCellRenderer {
@@ -502,8 +535,8 @@ public class TradingGUI extends JFrame {
             button.addActionListener(e -> {
                 fireEditingStopped();
                 String symbol = (String) watchlistTable.getValueAt(row, 0);
-                platform.getUser().getWatchlist().removeSymbol(symbol);
-                updateWatchlistTable();
+                platform.removeFromWatchlist(symbol);
+                engine.refresh();
             });
         }
         
@@ -528,8 +561,8 @@ public class TradingGUI extends JFrame {
             button.addActionListener(e -> {
                 fireEditingStopped();
                 String orderId = (String) ordersTable.getValueAt(row, 0);
-                platform.getUser().getOrderBook().removeOrder(orderId);
-                updateOrdersTable();
+                platform.getSequencer().cancelOrder(orderId);
+                engine.refresh();
             });
         }
         
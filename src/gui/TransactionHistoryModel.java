@@ -0,0 +1,113 @@
+package gui;
+
+import model.Transaction;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongFunction;
+
+public class TransactionHistoryModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Time", "Type", "Symbol", "Shares", "Price", "Total"};
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    
+    private final LongFunction<List<Transaction>> pages;
+    private final int pageSize;
+    private final ExecutorService loader;
+    private final List<Transaction> rows;
+    private long generation;
+    private boolean loading;
+    private boolean exhausted;
+    
+    public TransactionHistoryModel(LongFunction<List<Transaction>> pages, int pageSize) {
+        this.pages = pages;
+        this.pageSize = pageSize;
+        this.loader = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "history-loader");
+            t.setDaemon(true);
+            return t;
+        });
+        this.rows = new ArrayList<>();
+    }
+    
+    public void loadMore() {
+        if (loading || exhausted) return;
+        loading = true;
+        long before = rows.isEmpty() ? Long.MAX_VALUE : rows.get(rows.size() - 1).getSequence();
+        long requested = generation;
+        loader.execute(() -> {
+            List<Transaction> page = pages.apply(before);
+            SwingUtilities.invokeLater(() -> appendPage(requested, page));
+        });
+    }
+    
+    public void applyRecent(List<Transaction> recent) {
+        if (recent.isEmpty() || loading && rows.isEmpty()) return;
+        long newest = rows.isEmpty() ? 0 : rows.get(0).getSequence();
+        int fresh = 0;
+        while (fresh < recent.size() && recent.get(fresh).getSequence() > newest) fresh++;
+        if (fresh == 0) return;
+        if (fresh == recent.size() && recent.get(fresh - 1).getSequence() > newest + 1 && !rows.isEmpty()) {
+            reload();
+            return;
+        }
+        rows.addAll(0, recent.subList(0, fresh));
+        fireTableRowsInserted(0, fresh - 1);
+    }
+    
+    public void reload() {
+        generation++;
+        loading = false;
+        exhausted = false;
+        if (!rows.isEmpty()) {
+            int last = rows.size() - 1;
+            rows.clear();
+            fireTableRowsDeleted(0, last);
+        }
+        loadMore();
+    }
+    
+    public void close() {
+        loader.shutdownNow();
+    }
+    
+    private void appendPage(long requested, List<Transaction> page) {
+        if (requested != generation) return;
+        loading = false;
+        if (page.size() < pageSize) exhausted = true;
+        if (page.isEmpty()) return;
+        int first = rows.size();
+        rows.addAll(page);
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+    
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+    
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+    
+    @Override
+    public String getColumnName(int col) {
+        return COLUMNS[col];
+    }
+    
+    @Override
+    public Object getValueAt(int row, int col) {
+        Transaction t = rows.get(row);
+        switch (col) {
+            case 0: return t.getTimestamp().format(TIME_FORMAT);
+            case 1: return t.getType();
+            case 2: return t.getStockSymbol();
+            case 3: return t.getQuantity();
+            case 4: return t.getPricePerShare();
+            default: return t.getTotalAmount();
+        }
+    }
+}
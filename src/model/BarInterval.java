@@ -0,0 +1,31 @@
+package model;
+
+public enum BarInterval {
+    SECOND("1s", 1_000L),
+    MINUTE("1m", 60_000L),
+    FIVE_MINUTES("5m", 300_000L),
+    HOUR("1h", 3_600_000L);
+    
+    private final String label;
+    private final long millis;
+    
+    BarInterval(String label, long millis) {
+        this.label = label;
+        this.millis = millis;
+    }
+    
+    public String getLabel() { return label; }
+    public long getMillis() { return millis; }
+    public String getTable() { return "bars_" + label; }
+    
+    public long start(long timestamp) {
+        return Math.floorDiv(timestamp, millis) * millis;
+    }
+    
+    public static BarInterval parse(String label) {
+        for (BarInterval interval : values()) {
+            if (interval.label.equalsIgnoreCase(label)) return interval;
+        }
+        throw new IllegalArgumentException("Unknown bar interval: " + label);
+    }
+}
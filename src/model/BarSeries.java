@@ -0,0 +1,75 @@
+package model;
+
+public class BarSeries implements OhlcSeries {
+    private final long[] starts;
+    private final double[] opens;
+    private final double[] highs;
+    private final double[] lows;
+    private final double[] closes;
+    private final int[] ticks;
+    private int head;
+    private int size;
+    
+    public BarSeries(int capacity) {
+        this.starts = new long[capacity];
+        this.opens = new double[capacity];
+        this.highs = new double[capacity];
+        this.lows = new double[capacity];
+        this.closes = new double[capacity];
+        this.ticks = new int[capacity];
+    }
+    
+    public void addBar(long start, double open, double high, double low, double close, int tickCount) {
+        int tail = head + size;
+        if (tail >= starts.length) tail -= starts.length;
+        starts[tail] = start;
+        opens[tail] = open;
+        highs[tail] = high;
+        lows[tail] = low;
+        closes[tail] = close;
+        ticks[tail] = tickCount;
+        if (size < starts.length) {
+            size++;
+        } else if (++head == starts.length) {
+            head = 0;
+        }
+    }
+    
+    public BarSeries copy(int capacity) {
+        BarSeries copy = new BarSeries(capacity);
+        for (int i = Math.max(0, size - capacity); i < size; i++) {
+            int slot = slot(i);
+            copy.addBar(starts[slot], opens[slot], highs[slot], lows[slot], closes[slot], ticks[slot]);
+        }
+        return copy;
+    }
+    
+    public int capacity() { return starts.length; }
+    
+    @Override
+    public int size() { return size; }
+    
+    @Override
+    public double getPrice(int index) { return closes[slot(index)]; }
+    
+    @Override
+    public long getTimestamp(int index) { return starts[slot(index)]; }
+    
+    @Override
+    public double getOpen(int index) { return opens[slot(index)]; }
+    
+    @Override
+    public double getHigh(int index) { return highs[slot(index)]; }
+    
+    @Override
+    public double getLow(int index) { return lows[slot(index)]; }
+    
+    @Override
+    public int getTickCount(int index) { return ticks[slot(index)]; }
+    
+    private int slot(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        int slot = head + index;
+        return slot >= starts.length ? slot - starts.length : slot;
+    }
+}
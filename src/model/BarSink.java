@@ -0,0 +1,5 @@
+package model;
+
+public interface BarSink {
+    void onBar(String symbol, BarInterval interval, long start, double open, double high, double low, double close, int ticks);
+}
@@ -0,0 +1,41 @@
+package model;
+
+public class Fill {
+    private final String symbol;
+    private final long buyOrderId;
+    private final long sellOrderId;
+    private final String buyer;
+    private final String seller;
+    private final int quantity;
+    private final double price;
+    private final int buyRemaining;
+    private final int sellRemaining;
+    
+    public Fill(String symbol, long buyOrderId, long sellOrderId, String buyer, String seller,
+                int quantity, double price, int buyRemaining, int sellRemaining) {
+        this.symbol = symbol;
+        this.buyOrderId = buyOrderId;
+        this.sellOrderId = sellOrderId;
+        this.buyer = buyer;
+        this.seller = seller;
+        this.quantity = quantity;
+        this.price = price;
+        this.buyRemaining = buyRemaining;
+        this.sellRemaining = sellRemaining;
+    }
+    
+    public String getSymbol() { return symbol; }
+    public long getBuyOrderId() { return buyOrderId; }
+    public long getSellOrderId() { return sellOrderId; }
+    public String getBuyer() { return buyer; }
+    public String getSeller() { return seller; }
+    public int getQuantity() { return quantity; }
+    public double getPrice() { return price; }
+    public int getBuyRemaining() { return buyRemaining; }
+    public int getSellRemaining() { return sellRemaining; }
+    
+    @Override
+    public String toString() {
+        return String.format("FILL %s %d @ $%.2f (%s <- %s)", symbol, quantity, price, buyer, seller);
+    }
+}
@@ -0,0 +1,5 @@
+package model;
+
+public interface FillListener {
+    void onFill(Fill fill);
+}
@@ -0,0 +1,5 @@
+package model;
+
+public interface HoldingVisitor {
+    void visit(String symbol, int quantity, double avgPrice, double mark);
+}
@@ -0,0 +1,141 @@
+package model;
+
+import java.util.Arrays;
+
+public class HoldingsTable {
+    private static final int EMPTY = -1;
+    
+    private int[] keys;
+    private int[] quantities;
+    private double[] avgPrices;
+    private double[] marks;
+    private int size;
+    private int mask;
+    
+    public HoldingsTable() {
+        this(16);
+    }
+    
+    public HoldingsTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+    
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    public int capacity() { return keys.length; }
+    
+    public int find(int symbolId) {
+        int slot = slot(symbolId);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == symbolId) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+    
+    public int insert(int symbolId, double initialMark) {
+        if (symbolId < 0) throw new IllegalArgumentException("Invalid symbol id: " + symbolId);
+        int slot = slot(symbolId);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == symbolId) return slot;
+            slot = (slot + 1) & mask;
+        }
+        if ((size + 1) * 2 > keys.length) {
+            rehash(keys.length << 1);
+            return insert(symbolId, initialMark);
+        }
+        keys[slot] = symbolId;
+        quantities[slot] = 0;
+        avgPrices[slot] = 0;
+        marks[slot] = initialMark;
+        size++;
+        return slot;
+    }
+    
+    public void removeAt(int slot) {
+        shiftBack(slot);
+        size--;
+    }
+    
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+    
+    public int symbolIdAt(int slot) { return keys[slot]; }
+    public int quantityAt(int slot) { return quantities[slot]; }
+    public double avgPriceAt(int slot) { return avgPrices[slot]; }
+    public double markAt(int slot) { return marks[slot]; }
+    
+    public void setPosition(int slot, int quantity, double avgPrice) {
+        quantities[slot] = quantity;
+        avgPrices[slot] = avgPrice;
+    }
+    
+    public void setMark(int slot, double mark) {
+        marks[slot] = mark;
+    }
+    
+    public void forEach(HoldingVisitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] == EMPTY) continue;
+            visitor.visit(SymbolTable.nameOf(keys[slot]), quantities[slot], avgPrices[slot], marks[slot]);
+        }
+    }
+    
+    public int nextSlot(int from) {
+        for (int slot = from; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) return slot;
+        }
+        return -1;
+    }
+    
+    private void shiftBack(int gap) {
+        int slot = gap;
+        while (true) {
+            slot = (slot + 1) & mask;
+            if (keys[slot] == EMPTY) break;
+            int home = slot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                quantities[gap] = quantities[slot];
+                avgPrices[gap] = avgPrices[slot];
+                marks[gap] = marks[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = EMPTY;
+    }
+    
+    private int slot(int symbolId) {
+        int h = symbolId * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+    
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        quantities = new int[capacity];
+        avgPrices = new double[capacity];
+        marks = new double[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+    }
+    
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldQuantities = quantities;
+        double[] oldAvgPrices = avgPrices;
+        double[] oldMarks = marks;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = slot(oldKeys[i]);
+            while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            quantities[slot] = oldQuantities[i];
+            avgPrices[slot] = oldAvgPrices[i];
+            marks[slot] = oldMarks[i];
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package model;
+
+import java.util.*;
+
+public class LimitOrderBook {
+    public static final double TICK_SIZE = 0.01;
+    
+    private final String symbol;
+    private final TreeMap<Long, PriceLevel> bids;
+    private final TreeMap<Long, PriceLevel> asks;
+    private final LongHashMap<RestingOrder> resting;
+    private long nextSequence;
+    
+    public LimitOrderBook(String symbol) {
+        this.symbol = symbol;
+        this.bids = new TreeMap<>(Comparator.reverseOrder());
+        this.asks = new TreeMap<>();
+        this.resting = new LongHashMap<>();
+    }
+    
+    public static long toTicks(double price) { return Math.round(price / TICK_SIZE); }
+    public static double toPrice(long ticks) { return ticks * TICK_SIZE; }
+    
+    public String getSymbol() { return symbol; }
+    
+    public int submit(long orderId, String account, boolean buy, long priceTicks, int quantity, FillListener listener) {
+        int remaining = buy
+            ? matchBuy(orderId, account, priceTicks, quantity, listener)
+            : matchSell(orderId, account, priceTicks, quantity, listener);
+        if (remaining > 0) {
+            RestingOrder order = new RestingOrder(orderId, account, buy, priceTicks, remaining, nextSequence++);
+            TreeMap<Long, PriceLevel> side = buy ? bids : asks;
+            PriceLevel level = side.get(priceTicks);
+            if (level == null) {
+                level = new PriceLevel(priceTicks);
+                side.put(priceTicks, level);
+            }
+            level.append(order);
+            resting.put(orderId, order);
+        }
+        return remaining;
+    }
+    
+    public RestingOrder cancel(long orderId, String account) {
+        RestingOrder order = resting.get(orderId);
+        if (order == null || !order.account.equals(account)) return null;
+        resting.remove(orderId);
+        PriceLevel level = order.level;
+        level.unlink(order);
+        if (level.isEmpty()) {
+            (order.buy ? bids : asks).remove(level.priceTicks);
+        }
+        return order;
+    }
+    
+    public List<RestingOrder> cancelAll() {
+        List<RestingOrder> cancelled = new ArrayList<>(resting.size());
+        for (TreeMap<Long, PriceLevel> side : List.of(bids, asks)) {
+            for (PriceLevel level : side.values()) {
+                for (RestingOrder order = level.head; order != null; order = order.next) {
+                    cancelled.add(order);
+                }
+            }
+            side.clear();
+        }
+        resting.clear();
+        return cancelled;
+    }
+    
+    public RestingOrder getOrder(long orderId) { return resting.get(orderId); }
+    public int getOrderCount() { return resting.size(); }
+    public long getBestBid() { return bids.isEmpty() ? -1 : bids.firstKey(); }
+    public long getBestAsk() { return asks.isEmpty() ? -1 : asks.firstKey(); }
+    
+    public long getDepth(boolean buy, long priceTicks) {
+        PriceLevel level = (buy ? bids : asks).get(priceTicks);
+        return level == null ? 0 : level.quantity;
+    }
+    
+    private int matchBuy(long orderId, String account, long limit, int quantity, FillListener listener) {
+        int remaining = quantity;
+        while (remaining > 0 && !asks.isEmpty()) {
+            PriceLevel level = asks.firstEntry().getValue();
+            if (level.priceTicks > limit) break;
+            while (remaining > 0 && !level.isEmpty()) {
+                RestingOrder maker = level.head;
+                int qty = Math.min(remaining, maker.remaining);
+                remaining -= qty;
+                level.reduce(maker, qty);
+                if (maker.remaining == 0) resting.remove(maker.orderId);
+                listener.onFill(new Fill(symbol, orderId, maker.orderId, account, maker.account,
+                    qty, toPrice(level.priceTicks), remaining, maker.remaining));
+            }
+            if (level.isEmpty()) asks.pollFirstEntry();
+        }
+        return remaining;
+    }
+    
+    private int matchSell(long orderId, String account, long limit, int quantity, FillListener listener) {
+        int remaining = quantity;
+        while (remaining > 0 && !bids.isEmpty()) {
+            PriceLevel level = bids.firstEntry().getValue();
+            if (level.priceTicks < limit) break;
+            while (remaining > 0 && !level.isEmpty()) {
+                RestingOrder maker = level.head;
+                int qty = Math.min(remaining, maker.remaining);
+                remaining -= qty;
+                level.reduce(maker, qty);
+                if (maker.remaining == 0) resting.remove(maker.orderId);
+                listener.onFill(new Fill(symbol, maker.orderId, orderId, maker.account, account,
+                    qty, toPrice(level.priceTicks), maker.remaining, remaining));
+            }
+            if (level.isEmpty()) bids.pollFirstEntry();
+        }
+        return remaining;
+    }
+    
+    public static class RestingOrder {
+        private final long orderId;
+        private final String account;
+        private final boolean buy;
+        private final long priceTicks;
+        private final long sequence;
+        private int remaining;
+        private PriceLevel level;
+        private RestingOrder prev, next;
+        
+        RestingOrder(long orderId, String account, boolean buy, long priceTicks, int remaining, long sequence) {
+            this.orderId = orderId;
+            this.account = account;
+            this.buy = buy;
+            this.priceTicks = priceTicks;
+            this.remaining = remaining;
+            this.sequence = sequence;
+        }
+        
+        public long getOrderId() { return orderId; }
+        public String getAccount() { return account; }
+        public boolean isBuy() { return buy; }
+        public double getPrice() { return toPrice(priceTicks); }
+        public int getRemaining() { return remaining; }
+        public long getSequence() { return sequence; }
+    }
+    
+    private static class PriceLevel {
+        private final long priceTicks;
+        private RestingOrder head, tail;
+        private long quantity;
+        
+        PriceLevel(long priceTicks) {
+            this.priceTicks = priceTicks;
+        }
+        
+        boolean isEmpty() { return head == null; }
+        
+        void append(RestingOrder order) {
+            order.level = this;
+            order.prev = tail;
+            if (tail == null) head = order; else tail.next = order;
+            tail = order;
+            quantity += order.remaining;
+        }
+        
+        void reduce(RestingOrder order, int qty) {
+            order.remaining -= qty;
+            quantity -= qty;
+            if (order.remaining == 0) unlink(order);
+        }
+        
+        void unlink(RestingOrder order) {
+            if (order.prev == null) head = order.next; else order.prev.next = order.next;
+            if (order.next == null) tail = order.prev; else order.next.prev = order.prev;
+            quantity -= order.remaining;
+            order.prev = order.next = null;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package model;
+
+public interface OhlcSeries extends PriceSeries {
+    double getOpen(int index);
+    double getHigh(int index);
+    double getLow(int index);
+    int getTickCount(int index);
+}
@@ -4,6 +4,8 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 public class Order implements Serializable {
+    private static final long serialVersionUID = -1723012422035426544L;
+    
     public enum OrderType { MARKET, LIMIT, STOP_LOSS }
     public enum OrderStatus { PENDING, EXECUTED, CANCELLED }
     
@@ -27,6 +29,18 @@ public class Order implements Serializable {
         this.createdAt = LocalDateTime.now();
     }
     
+    public Order(String orderId, String symbol, String action, int quantity, OrderType type,
+                 double targetPrice, OrderStatus status, LocalDateTime createdAt) {
+        this.orderId = orderId;
+        this.symbol = symbol;
+        this.action = action;
+        this.quantity = quantity;
+        this.type = type;
+        this.targetPrice = targetPrice;
+        this.status = status;
+        this.createdAt = createdAt;
+    }
+    
     public String getOrderId() { return orderId; }
     public String getSymbol() { return symbol; }
     public String getAction() { return action; }
@@ -34,6 +48,7 @@ public class Order implements Serializable {
     public OrderType getType() { return type; }
     public double getTargetPrice() { return targetPrice; }
     public OrderStatus getStatus() { return status; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
     public void setStatus(OrderStatus status) { this.status = status; }
     
     @Override
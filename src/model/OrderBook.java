@@ -1,21 +1,53 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
 public class OrderBook implements Serializable {
+    private static final long serialVersionUID = -5803124323292947325L;
+    
     private List<Order> orders;
+    private transient Map<String, Order> pendingById;
+    private transient Map<String, OrderTriggerIndex> triggers;
     
     public OrderBook() {
         this.orders = new ArrayList<>();
+        this.pendingById = new HashMap<>();
+        this.triggers = new HashMap<>();
     }
     
     public void addOrder(Order order) {
         orders.add(order);
+        index(order);
+    }
+    
+    public boolean removeOrder(String orderId) {
+        boolean removed = orders.removeIf(o -> o.getOrderId().equals(orderId));
+        unindex(pendingById.get(orderId));
+        return removed;
+    }
+    
+    public void markExecuted(Order order) {
+        order.setStatus(Order.OrderStatus.EXECUTED);
+        unindex(order);
+    }
+    
+    public Set<String> getTriggerSymbols() {
+        return Collections.unmodifiableSet(triggers.keySet());
+    }
+    
+    public boolean hasTriggers(String symbol) {
+        return triggers.containsKey(symbol);
     }
     
-    public void removeOrder(String orderId) {
-        orders.removeIf(o -> o.getOrderId().equals(orderId));
+    public List<Order> getTriggeredOrders(String symbol, double price) {
+        OrderTriggerIndex index = triggers.get(symbol);
+        if (index == null || index.isEmpty()) return Collections.emptyList();
+        List<Order> triggered = new ArrayList<>();
+        index.collectTriggered(price, triggered);
+        return triggered;
     }
     
     public List<Order> getPendingOrders() {
@@ -31,4 +63,27 @@ public class OrderBook implements Serializable {
     public List<Order> getAllOrders() {
         return new ArrayList<>(orders);
     }
+    
+    private void index(Order order) {
+        if (order.getStatus() != Order.OrderStatus.PENDING) return;
+        pendingById.put(order.getOrderId(), order);
+        if (OrderTriggerIndex.isTriggerable(order)) {
+            triggers.computeIfAbsent(order.getSymbol(), k -> new OrderTriggerIndex()).add(order);
+        }
+    }
+    
+    private void unindex(Order order) {
+        if (order == null || pendingById.remove(order.getOrderId()) == null) return;
+        OrderTriggerIndex index = triggers.get(order.getSymbol());
+        if (index != null && index.remove(order) && index.isEmpty()) triggers.remove(order.getSymbol());
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        pendingById = new HashMap<>();
+        triggers = new HashMap<>();
+        for (Order o : orders) {
+            index(o);
+        }
+    }
 }
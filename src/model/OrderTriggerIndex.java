@@ -0,0 +1,56 @@
+package model;
+
+import java.util.*;
+
+public class OrderTriggerIndex {
+    private final NavigableMap<Double, List<Order>> buyLimits;
+    private final NavigableMap<Double, List<Order>> sellLimits;
+    private final NavigableMap<Double, List<Order>> stopLosses;
+    private int size;
+    
+    public OrderTriggerIndex() {
+        this.buyLimits = new TreeMap<>();
+        this.sellLimits = new TreeMap<>();
+        this.stopLosses = new TreeMap<>();
+    }
+    
+    public static boolean isTriggerable(Order order) {
+        if (order.getType() == Order.OrderType.STOP_LOSS) return true;
+        return order.getType() == Order.OrderType.LIMIT
+            && (order.getAction().equals("BUY") || order.getAction().equals("SELL"));
+    }
+    
+    public void add(Order order) {
+        levelsFor(order).computeIfAbsent(order.getTargetPrice(), k -> new ArrayList<>(2)).add(order);
+        size++;
+    }
+    
+    public boolean remove(Order order) {
+        NavigableMap<Double, List<Order>> levels = levelsFor(order);
+        List<Order> level = levels.get(order.getTargetPrice());
+        if (level == null || !level.remove(order)) return false;
+        if (level.isEmpty()) levels.remove(order.getTargetPrice());
+        size--;
+        return true;
+    }
+    
+    public void collectTriggered(double price, List<Order> out) {
+        collect(buyLimits.tailMap(price, true), out);
+        collect(sellLimits.headMap(price, true), out);
+        collect(stopLosses.tailMap(price, true), out);
+    }
+    
+    public int size() { return size; }
+    public boolean isEmpty() { return size == 0; }
+    
+    private void collect(Map<Double, List<Order>> crossed, List<Order> out) {
+        for (List<Order> level : crossed.values()) {
+            out.addAll(level);
+        }
+    }
+    
+    private NavigableMap<Double, List<Order>> levelsFor(Order order) {
+        if (order.getType() == Order.OrderType.STOP_LOSS) return stopLosses;
+        return order.getAction().equals("BUY") ? buyLimits : sellLimits;
+    }
+}
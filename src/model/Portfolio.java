@@ -1,57 +1,145 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.*;
+import java.util.function.IntToDoubleFunction;
 
 public class Portfolio implements Serializable {
-    private Map<String, Integer> holdings;
-    private Map<String, Double> avgPurchasePrice;
+    private static final long serialVersionUID = 7656411360744706151L;
+    
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("holdings", Map.class),
+        new ObjectStreamField("avgPurchasePrice", Map.class)
+    };
+    
+    private transient HoldingsTable holdings;
+    private transient double marketValue;
+    private transient double costBasis;
     
     public Portfolio() {
-        this.holdings = new HashMap<>();
-        this.avgPurchasePrice = new HashMap<>();
+        this.holdings = new HoldingsTable();
     }
     
     public void addStock(String symbol, int quantity, double price) {
-        int currentQty = holdings.getOrDefault(symbol, 0);
-        double currentAvg = avgPurchasePrice.getOrDefault(symbol, 0.0);
+        addStock(SymbolTable.idOf(symbol), quantity, price);
+    }
+    
+    public void addStock(int symbolId, int quantity, double price) {
+        int slot = holdings.insert(symbolId, price);
+        int currentQty = holdings.quantityAt(slot);
+        double currentAvg = holdings.avgPriceAt(slot);
         
         double newAvg = ((currentAvg * currentQty) + (price * quantity)) / (currentQty + quantity);
-        holdings.put(symbol, currentQty + quantity);
-        avgPurchasePrice.put(symbol, newAvg);
+        holdings.setPosition(slot, currentQty + quantity, newAvg);
+        
+        marketValue += holdings.markAt(slot) * quantity;
+        costBasis += price * quantity;
     }
     
     public boolean removeStock(String symbol, int quantity) {
-        int currentQty = holdings.getOrDefault(symbol, 0);
+        return removeStock(SymbolTable.lookup(symbol), quantity);
+    }
+    
+    public boolean removeStock(int symbolId, int quantity) {
+        int slot = symbolId < 0 ? -1 : holdings.find(symbolId);
+        int currentQty = slot < 0 ? 0 : holdings.quantityAt(slot);
         if (currentQty < quantity) return false;
+        if (slot < 0) return true;
         
+        marketValue -= holdings.markAt(slot) * quantity;
+        costBasis -= holdings.avgPriceAt(slot) * quantity;
         if (currentQty == quantity) {
-            holdings.remove(symbol);
-            avgPurchasePrice.remove(symbol);
+            holdings.removeAt(slot);
+            if (holdings.isEmpty()) {
+                marketValue = 0;
+                costBasis = 0;
+            }
         } else {
-            holdings.put(symbol, currentQty - quantity);
+            holdings.setPosition(slot, currentQty - quantity, holdings.avgPriceAt(slot));
         }
         return true;
     }
     
+    public boolean markToMarket(String symbol, double price) {
+        return markToMarket(SymbolTable.lookup(symbol), price);
+    }
+    
+    public boolean markToMarket(int symbolId, double price) {
+        int slot = symbolId < 0 ? -1 : holdings.find(symbolId);
+        if (slot < 0) return false;
+        
+        marketValue += (price - holdings.markAt(slot)) * holdings.quantityAt(slot);
+        holdings.setMark(slot, price);
+        return true;
+    }
+    
+    public void markToMarket(Map<String, Stock> marketStocks) {
+        for (int slot = holdings.nextSlot(0); slot >= 0; slot = holdings.nextSlot(slot + 1)) {
+            Stock stock = marketStocks.get(SymbolTable.nameOf(holdings.symbolIdAt(slot)));
+            if (stock == null) continue;
+            
+            double price = stock.getCurrentPrice();
+            marketValue += (price - holdings.markAt(slot)) * holdings.quantityAt(slot);
+            holdings.setMark(slot, price);
+        }
+    }
+    
+    public void markToMarket(IntToDoubleFunction pricesById) {
+        for (int slot = holdings.nextSlot(0); slot >= 0; slot = holdings.nextSlot(slot + 1)) {
+            double price = pricesById.applyAsDouble(holdings.symbolIdAt(slot));
+            if (Double.isNaN(price)) continue;
+            
+            marketValue += (price - holdings.markAt(slot)) * holdings.quantityAt(slot);
+            holdings.setMark(slot, price);
+        }
+    }
+    
+    public double getMarketValue() { return marketValue; }
+    public double getCostBasis() { return costBasis; }
+    public double getUnrealizedProfitLoss() { return marketValue - costBasis; }
+    
+    public double getMark(String symbol) {
+        int slot = find(symbol);
+        return slot < 0 ? 0.0 : holdings.markAt(slot);
+    }
+    
     public int getQuantity(String symbol) {
-        return holdings.getOrDefault(symbol, 0);
+        return getQuantity(SymbolTable.lookup(symbol));
+    }
+    
+    public int getQuantity(int symbolId) {
+        int slot = symbolId < 0 ? -1 : holdings.find(symbolId);
+        return slot < 0 ? 0 : holdings.quantityAt(slot);
     }
     
     public double getAvgPrice(String symbol) {
-        return avgPurchasePrice.getOrDefault(symbol, 0.0);
+        int slot = find(symbol);
+        return slot < 0 ? 0.0 : holdings.avgPriceAt(slot);
+    }
+    
+    public int size() { return holdings.size(); }
+    public boolean isEmpty() { return holdings.isEmpty(); }
+    
+    public void forEach(HoldingVisitor visitor) {
+        holdings.forEach(visitor);
     }
     
     public Map<String, Integer> getHoldings() {
-        return new HashMap<>(holdings);
+        Map<String, Integer> copy = new HashMap<>();
+        holdings.forEach((symbol, quantity, avgPrice, mark) -> copy.put(symbol, quantity));
+        return copy;
     }
     
     public double calculateTotalValue(Map<String, Stock> marketStocks) {
         double total = 0;
-        for (Map.Entry<String, Integer> entry : holdings.entrySet()) {
-            Stock stock = marketStocks.get(entry.getKey());
+        for (int slot = holdings.nextSlot(0); slot >= 0; slot = holdings.nextSlot(slot + 1)) {
+            Stock stock = marketStocks.get(SymbolTable.nameOf(holdings.symbolIdAt(slot)));
             if (stock != null) {
-                total += stock.getCurrentPrice() * entry.getValue();
+                total += stock.getCurrentPrice() * holdings.quantityAt(slot);
             }
         }
         return total;
@@ -59,14 +147,49 @@ public class Portfolio implements Serializable {
     
     public double calculateProfitLoss(Map<String, Stock> marketStocks) {
         double profitLoss = 0;
-        for (Map.Entry<String, Integer> entry : holdings.entrySet()) {
-            Stock stock = marketStocks.get(entry.getKey());
+        for (int slot = holdings.nextSlot(0); slot >= 0; slot = holdings.nextSlot(slot + 1)) {
+            Stock stock = marketStocks.get(SymbolTable.nameOf(holdings.symbolIdAt(slot)));
             if (stock != null) {
-                double invested = avgPurchasePrice.get(entry.getKey()) * entry.getValue();
-                double current = stock.getCurrentPrice() * entry.getValue();
+                double invested = holdings.avgPriceAt(slot) * holdings.quantityAt(slot);
+                double current = stock.getCurrentPrice() * holdings.quantityAt(slot);
                 profitLoss += (current - invested);
             }
         }
         return profitLoss;
     }
+    
+    private int find(String symbol) {
+        int id = SymbolTable.lookup(symbol);
+        return id < 0 ? -1 : holdings.find(id);
+    }
+    
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Map<String, Integer> quantities = new HashMap<>();
+        Map<String, Double> avgPrices = new HashMap<>();
+        holdings.forEach((symbol, quantity, avgPrice, mark) -> {
+            quantities.put(symbol, quantity);
+            avgPrices.put(symbol, avgPrice);
+        });
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("holdings", quantities);
+        fields.put("avgPurchasePrice", avgPrices);
+        out.writeFields();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        Map<String, Integer> quantities = (Map<String, Integer>) fields.get("holdings", null);
+        Map<String, Double> avgPrices = (Map<String, Double>) fields.get("avgPurchasePrice", null);
+        holdings = new HoldingsTable(quantities == null ? 16 : quantities.size());
+        if (quantities == null) return;
+        
+        for (Map.Entry<String, Integer> entry : quantities.entrySet()) {
+            double avgPrice = avgPrices.getOrDefault(entry.getKey(), 0.0);
+            int slot = holdings.insert(SymbolTable.idOf(entry.getKey()), avgPrice);
+            holdings.setPosition(slot, entry.getValue(), avgPrice);
+            costBasis += avgPrice * entry.getValue();
+        }
+        marketValue = costBasis;
+    }
 }
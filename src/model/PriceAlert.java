@@ -0,0 +1,52 @@
+package model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+public class PriceAlert implements Serializable {
+    public enum Direction { ABOVE, BELOW }
+    
+    private String alertId;
+    private String username;
+    private String symbol;
+    private Direction direction;
+    private double level;
+    private LocalDateTime createdAt;
+    
+    public PriceAlert(String username, String symbol, Direction direction, double level) {
+        this.alertId = UUID.randomUUID().substring(0, 8);
+        this.username = username;
+        this.symbol = symbol;
+        this.direction = direction;
+        this.level = level;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public PriceAlert(String alertId, String username, String symbol, Direction direction, double level,
+                      LocalDateTime createdAt) {
+        this.alertId = alertId;
+        this.username = username;
+        this.symbol = symbol;
+        this.direction = direction;
+        this.level = level;
+        this.createdAt = createdAt;
+    }
+    
+    public String getAlertId() { return alertId; }
+    public String getUsername() { return username; }
+    public String getSymbol() { return symbol; }
+    public Direction getDirection() { return direction; }
+    public double getLevel() { return level; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    
+    public boolean isCrossed(double previousPrice, double currentPrice) {
+        return direction == Direction.ABOVE
+            ? previousPrice < level && currentPrice >= level
+            : previousPrice > level && currentPrice <= level;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%s %s $%.2f", symbol, direction == Direction.ABOVE ? "above" : "below", level);
+    }
+}
@@ -3,23 +3,126 @@ package model;
 import java.io.Serializable;
 import java.util.*;
 
-public class PriceHistory implements Serializable {
+public class PriceHistory implements PriceSeries, Serializable {
+    public static final int DEFAULT_CAPACITY = 100;
+    
     private String symbol;
-    private List<PricePoint> history;
+    private double[] prices;
+    private long[] timestamps;
+    private int head;
+    private int size;
+    private long appended;
     
     public PriceHistory(String symbol) {
+        this(symbol, DEFAULT_CAPACITY);
+    }
+    
+    public PriceHistory(String symbol, int capacity) {
         this.symbol = symbol;
-        this.history = new ArrayList<>();
+        this.prices = new double[capacity];
+        this.timestamps = new long[capacity];
     }
     
     public void addPrice(double price, long timestamp) {
-        history.add(new PricePoint(price, timestamp));
-        if (history.size() > 100) history.remove(0);
+        int tail = head + size;
+        if (tail >= prices.length) tail -= prices.length;
+        prices[tail] = price;
+        timestamps[tail] = timestamp;
+        if (size < prices.length) {
+            size++;
+        } else if (++head == prices.length) {
+            head = 0;
+        }
+        appended++;
+    }
+    
+    public int size() { return size; }
+    public int capacity() { return prices.length; }
+    public double getPrice(int index) { return prices[slot(index)]; }
+    public long getTimestamp(int index) { return timestamps[slot(index)]; }
+    
+    public PriceSeries view() {
+        return range(0, size);
+    }
+    
+    public PriceSeries range(int from, int to) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), Size: " + size);
+        }
+        return new Window(appended - size + from, to - from);
+    }
+    
+    public PriceSeries snapshot() {
+        double[] pricesCopy = new double[size];
+        long[] timestampsCopy = new long[size];
+        for (int i = 0; i < size; i++) {
+            int slot = slot(i);
+            pricesCopy[i] = prices[slot];
+            timestampsCopy[i] = timestamps[slot];
+        }
+        return new Snapshot(pricesCopy, timestampsCopy);
+    }
+    
+    public List<PricePoint> getHistory() {
+        List<PricePoint> history = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int slot = slot(i);
+            history.add(new PricePoint(prices[slot], timestamps[slot]));
+        }
+        return history;
     }
     
-    public List<PricePoint> getHistory() { return new ArrayList<>(history); }
     public String getSymbol() { return symbol; }
     
+    private int slot(int index) {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        int slot = head + index;
+        return slot >= prices.length ? slot - prices.length : slot;
+    }
+    
+    private class Window implements PriceSeries {
+        private final long start;
+        private final int length;
+        
+        Window(long start, int length) {
+            this.start = start;
+            this.length = length;
+        }
+        
+        @Override
+        public int size() { return length; }
+        
+        @Override
+        public double getPrice(int index) { return prices[position(index)]; }
+        
+        @Override
+        public long getTimestamp(int index) { return timestamps[position(index)]; }
+        
+        private int position(int index) {
+            if (index < 0 || index >= length) throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + length);
+            return (int) ((start + index) % prices.length);
+        }
+    }
+    
+    private static class Snapshot implements PriceSeries {
+        private final double[] prices;
+        private final long[] timestamps;
+        
+        Snapshot(double[] prices, long[] timestamps) {
+            this.prices = prices;
+            this.timestamps = timestamps;
+        }
+        
+        @Override
+        public int size() { return prices.length; }
+        
+        @Override
+        public double getPrice(int index) { return prices[index]; }
+        
+        @Override
+        public long getTimestamp(int index) { return timestamps[index]; }
+    }
+    
     public static class PricePoint implements Serializable {
         public final double price;
         public final long timestamp;
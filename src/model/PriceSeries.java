@@ -0,0 +1,11 @@
+package model;
+
+public interface PriceSeries {
+    int size();
+    double getPrice(int index);
+    long getTimestamp(int index);
+    
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+}
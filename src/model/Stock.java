@@ -5,7 +5,7 @@ import java.io.Serializable;
 public class Stock implements Serializable {
     private String symbol;
     private String name;
-    private double currentPrice;
+    private volatile double currentPrice;
     
     public Stock(String symbol, String name, double currentPrice) {
         this.symbol = symbol;
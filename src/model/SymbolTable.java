@@ -0,0 +1,44 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class SymbolTable {
+    private static final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static volatile int count;
+    
+    private SymbolTable() {}
+    
+    public static int idOf(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : register(symbol);
+    }
+    
+    public static int lookup(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+    
+    public static String nameOf(int id) {
+        return names[id];
+    }
+    
+    public static int size() {
+        return count;
+    }
+    
+    private static synchronized int register(String symbol) {
+        Integer existing = ids.get(symbol);
+        if (existing != null) return existing;
+        
+        int id = count;
+        String[] current = names;
+        if (id == current.length) current = Arrays.copyOf(current, id * 2);
+        current[id] = symbol.intern();
+        names = current;
+        ids.put(current[id], id);
+        count = id + 1;
+        return id;
+    }
+}
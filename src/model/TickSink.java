@@ -0,0 +1,12 @@
+package model;
+
+public interface TickSink {
+    void onTick(String symbol, double price, long timestamp);
+    
+    default void onTick(int symbolId, double price, long timestamp) {
+        onTick(SymbolTable.nameOf(symbolId), price, timestamp);
+    }
+    
+    default void endBatch() {
+    }
+}
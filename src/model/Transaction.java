@@ -5,18 +5,27 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
 public class Transaction implements Serializable {
+    private static final long serialVersionUID = 7012732388054940351L;
+    
     private String stockSymbol;
     private String type;
     private int quantity;
     private double pricePerShare;
     private LocalDateTime timestamp;
+    private long sequence;
     
     public Transaction(String stockSymbol, String type, int quantity, double pricePerShare) {
+        this(stockSymbol, type, quantity, pricePerShare, LocalDateTime.now(), 0);
+    }
+    
+    public Transaction(String stockSymbol, String type, int quantity, double pricePerShare,
+                       LocalDateTime timestamp, long sequence) {
         this.stockSymbol = stockSymbol;
         this.type = type;
         this.quantity = quantity;
         this.pricePerShare = pricePerShare;
-        this.timestamp = LocalDateTime.now();
+        this.timestamp = timestamp;
+        this.sequence = sequence;
     }
     
     public String getStockSymbol() { return stockSymbol; }
@@ -24,6 +33,10 @@ public class Transaction implements Serializable {
     public int getQuantity() { return quantity; }
     public double getPricePerShare() { return pricePerShare; }
     public double getTotalAmount() { return quantity * pricePerShare; }
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public long getSequence() { return sequence; }
+    
+    void assignSequence(long sequence) { this.sequence = sequence; }
     
     @Override
     public String toString() {
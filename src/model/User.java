@@ -1,15 +1,20 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
 public class User implements Serializable {
+    private static final long serialVersionUID = -5453267550297032814L;
+    
     private String username;
     private double balance;
     private Portfolio portfolio;
     private List<Transaction> transactionHistory;
     private Watchlist watchlist;
     private OrderBook orderBook;
+    private long lastTransactionSeq;
     
     public User(String username, double initialBalance) {
         this.username = username;
@@ -21,17 +26,17 @@ public class User implements Serializable {
     }
     
     public String getUsername() { return username; }
-    public double getBalance() { return balance; }
+    public synchronized double getBalance() { return balance; }
     public Portfolio getPortfolio() { return portfolio; }
     public List<Transaction> getTransactionHistory() { return transactionHistory; }
     public Watchlist getWatchlist() { return watchlist; }
     public OrderBook getOrderBook() { return orderBook; }
     
-    public void addBalance(double amount) {
+    public synchronized void addBalance(double amount) {
         this.balance += amount;
     }
     
-    public boolean deductBalance(double amount) {
+    public synchronized boolean deductBalance(double amount) {
         if (balance >= amount) {
             balance -= amount;
             return true;
@@ -39,7 +44,32 @@ public class User implements Serializable {
         return false;
     }
     
-    public void addTransaction(Transaction transaction) {
+    public synchronized long getLastTransactionSeq() { return lastTransactionSeq; }
+    
+    public synchronized void addTransaction(Transaction transaction) {
+        if (transaction.getSequence() == 0) {
+            transaction.assignSequence(++lastTransactionSeq);
+        } else {
+            lastTransactionSeq = Math.max(lastTransactionSeq, transaction.getSequence());
+        }
         transactionHistory.add(transaction);
     }
+    
+    public synchronized void trimTransactionHistory(long flushedThrough, int keep) {
+        int excess = transactionHistory.size() - keep;
+        int removable = 0;
+        while (removable < excess && transactionHistory.get(removable).getSequence() <= flushedThrough) removable++;
+        if (removable > 0) transactionHistory.subList(0, removable).clear();
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        for (Transaction t : transactionHistory) {
+            if (t.getSequence() == 0) {
+                t.assignSequence(++lastTransactionSeq);
+            } else {
+                lastTransactionSeq = Math.max(lastTransactionSeq, t.getSequence());
+            }
+        }
+    }
 }
@@ -1,11 +1,16 @@
 package model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.*;
 
 public class Watchlist implements Serializable {
+    private static final long serialVersionUID = 4420979308143171552L;
+    
     private Set<String> symbols;
-    private Map<String, Double> priceAlerts;
+    private Map<String, List<PriceAlert>> priceAlerts;
+    private transient Map<String, Double> legacyAlerts;
     
     public Watchlist() {
         this.symbols = new HashSet<>();
@@ -13,15 +18,66 @@ public class Watchlist implements Serializable {
     }
     
     public void addSymbol(String symbol) { symbols.add(symbol); }
-    public void removeSymbol(String symbol) { 
+    public List<PriceAlert> removeSymbol(String symbol) { 
         symbols.remove(symbol);
-        priceAlerts.remove(symbol);
+        List<PriceAlert> removed = priceAlerts.remove(symbol);
+        return removed != null ? removed : Collections.emptyList();
     }
     public boolean contains(String symbol) { return symbols.contains(symbol); }
     public Set<String> getSymbols() { return new HashSet<>(symbols); }
     
-    public void setAlert(String symbol, double price) { priceAlerts.put(symbol, price); }
-    public void removeAlert(String symbol) { priceAlerts.remove(symbol); }
-    public Double getAlert(String symbol) { return priceAlerts.get(symbol); }
-    public Map<String, Double> getAllAlerts() { return new HashMap<>(priceAlerts); }
+    public void addAlert(PriceAlert alert) {
+        priceAlerts.computeIfAbsent(alert.getSymbol(), k -> new ArrayList<>(2)).add(alert);
+    }
+    
+    public boolean removeAlert(PriceAlert alert) {
+        List<PriceAlert> alerts = priceAlerts.get(alert.getSymbol());
+        if (alerts == null || !alerts.remove(alert)) return false;
+        if (alerts.isEmpty()) priceAlerts.remove(alert.getSymbol());
+        return true;
+    }
+    
+    public List<PriceAlert> getAlerts(String symbol) {
+        List<PriceAlert> alerts = priceAlerts.get(symbol);
+        return alerts != null ? new ArrayList<>(alerts) : Collections.emptyList();
+    }
+    
+    public List<PriceAlert> getAllAlerts() {
+        List<PriceAlert> all = new ArrayList<>();
+        for (List<PriceAlert> alerts : priceAlerts.values()) {
+            all.addAll(alerts);
+        }
+        return all;
+    }
+    
+    public Map<String, Double> takeLegacyAlerts() {
+        Map<String, Double> legacy = legacyAlerts != null ? legacyAlerts : Collections.emptyMap();
+        legacyAlerts = null;
+        return legacy;
+    }
+    
+    public int getAlertCount() {
+        int count = 0;
+        for (List<PriceAlert> alerts : priceAlerts.values()) {
+            count += alerts.size();
+        }
+        return count;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        Map<String, ?> stored = priceAlerts;
+        priceAlerts = new HashMap<>();
+        for (Map.Entry<String, ?> entry : stored.entrySet()) {
+            if (entry.getValue() instanceof Double) {
+                if (legacyAlerts == null) legacyAlerts = new HashMap<>();
+                legacyAlerts.put(entry.getKey(), (Double) entry.getValue());
+            } else {
+                for (PriceAlert alert : (List<PriceAlert>) entry.getValue()) {
+                    addAlert(alert);
+                }
+            }
+        }
+    }
 }
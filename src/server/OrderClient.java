@@ -0,0 +1,221 @@
+package server;
+
+import model.Order;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.*;
+
+public class OrderClient implements Closeable {
+    private final SocketChannel channel;
+    private ByteBuffer in;
+    private int nextRequestId;
+    private final Deque<Quote> quotes;
+    
+    public OrderClient(String host, int port) throws IOException {
+        this.channel = SocketChannel.open(new InetSocketAddress(host, port));
+        channel.socket().setTcpNoDelay(true);
+        this.in = ByteBuffer.allocate(4096);
+        in.flip();
+        this.quotes = new ArrayDeque<>();
+    }
+    
+    public double login(String username) throws IOException {
+        ByteBuffer request = request(Protocol.LOGIN, Protocol.stringBytes(username));
+        Protocol.putString(request, username);
+        ByteBuffer reply = expectOk(send(request));
+        return reply.getDouble();
+    }
+    
+    public boolean buy(String symbol, int quantity) throws IOException {
+        return trade(Protocol.BUY, symbol, quantity);
+    }
+    
+    public boolean sell(String symbol, int quantity) throws IOException {
+        return trade(Protocol.SELL, symbol, quantity);
+    }
+    
+    public String placeOrder(String symbol, String action, int quantity, Order.OrderType type, double price)
+            throws IOException {
+        ByteBuffer request = request(Protocol.PLACE_ORDER, Protocol.stringBytes(symbol) + 14);
+        Protocol.putString(request, symbol);
+        request.put(Protocol.side(action)).putInt(quantity).put((byte) type.ordinal()).putDouble(price);
+        ByteBuffer reply = send(request);
+        return status(reply) ? Protocol.getString(reply) : null;
+    }
+    
+    public boolean cancelOrder(String orderId) throws IOException {
+        ByteBuffer request = request(Protocol.CANCEL_ORDER, Protocol.stringBytes(orderId));
+        Protocol.putString(request, orderId);
+        return status(send(request));
+    }
+    
+    public long submitLimitOrder(String symbol, String action, int quantity, double limitPrice) throws IOException {
+        ByteBuffer request = request(Protocol.SUBMIT_LIMIT, Protocol.stringBytes(symbol) + 13);
+        Protocol.putString(request, symbol);
+        request.put(Protocol.side(action)).putInt(quantity).putDouble(limitPrice);
+        ByteBuffer reply = send(request);
+        return status(reply) ? reply.getLong() : -1;
+    }
+    
+    public boolean cancelLimitOrder(String symbol, long orderId) throws IOException {
+        ByteBuffer request = request(Protocol.CANCEL_LIMIT, Protocol.stringBytes(symbol) + 8);
+        Protocol.putString(request, symbol);
+        request.putLong(orderId);
+        return status(send(request));
+    }
+    
+    public Holdings portfolio() throws IOException {
+        ByteBuffer reply = expectOk(send(request(Protocol.PORTFOLIO, 0)));
+        double balance = reply.getDouble();
+        int count = reply.getInt();
+        List<Position> positions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            positions.add(new Position(Protocol.getString(reply), reply.getInt(), reply.getDouble(), reply.getDouble()));
+        }
+        return new Holdings(balance, positions);
+    }
+    
+    public void subscribe() throws IOException {
+        expectOk(send(request(Protocol.SUBSCRIBE, 0)));
+    }
+    
+    public Quote nextQuote() throws IOException {
+        while (quotes.isEmpty()) {
+            ByteBuffer frame = readFrame();
+            if (frame.get(0) != Protocol.QUOTE) throw new IOException("Unexpected reply " + frame.getInt(1));
+            quotes.add(quote(frame));
+        }
+        return quotes.poll();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    private boolean trade(byte code, String symbol, int quantity) throws IOException {
+        ByteBuffer request = request(code, Protocol.stringBytes(symbol) + 4);
+        Protocol.putString(request, symbol);
+        request.putInt(quantity);
+        return status(send(request));
+    }
+    
+    private ByteBuffer request(byte code, int payloadCapacity) {
+        return Protocol.frame(code, ++nextRequestId, payloadCapacity);
+    }
+    
+    private ByteBuffer send(ByteBuffer request) throws IOException {
+        int requestId = request.getInt(5);
+        Protocol.finish(request);
+        while (request.hasRemaining()) {
+            channel.write(request);
+        }
+        
+        while (true) {
+            ByteBuffer reply = readFrame();
+            if (reply.get(0) == Protocol.QUOTE) {
+                quotes.add(quote(reply));
+                continue;
+            }
+            if (reply.getInt(1) != requestId) throw new IOException("Reply out of order");
+            return reply;
+        }
+    }
+    
+    private ByteBuffer readFrame() throws IOException {
+        fill(4);
+        int length = in.getInt();
+        if (length < Protocol.HEADER_BYTES - 4 || length > Protocol.MAX_FRAME_BYTES) {
+            throw new IOException("Bad frame length " + length);
+        }
+        fill(length);
+        ByteBuffer reply = in.slice();
+        reply.limit(length);
+        in.position(in.position() + length);
+        return reply;
+    }
+    
+    private static Quote quote(ByteBuffer frame) {
+        frame.position(Protocol.HEADER_BYTES - 4);
+        return new Quote(Protocol.getString(frame), frame.getDouble(), frame.getLong());
+    }
+    
+    private void fill(int bytes) throws IOException {
+        if (in.remaining() >= bytes) return;
+        in.compact();
+        if (in.capacity() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(bytes);
+            in.flip();
+            grown.put(in);
+            in = grown;
+        }
+        while (in.position() < bytes) {
+            if (channel.read(in) < 0) throw new EOFException("Server closed the connection");
+        }
+        in.flip();
+    }
+    
+    private static boolean status(ByteBuffer reply) throws IOException {
+        byte status = reply.get();
+        reply.getInt();
+        if (status == Protocol.ERROR) throw new IOException(Protocol.getString(reply));
+        return status == Protocol.OK;
+    }
+    
+    private static ByteBuffer expectOk(ByteBuffer reply) throws IOException {
+        if (!status(reply)) throw new IOException("Request rejected");
+        return reply;
+    }
+    
+    public static final class Holdings {
+        private final double balance;
+        private final List<Position> positions;
+        
+        Holdings(double balance, List<Position> positions) {
+            this.balance = balance;
+            this.positions = Collections.unmodifiableList(positions);
+        }
+        
+        public double getBalance() { return balance; }
+        public List<Position> getPositions() { return positions; }
+    }
+    
+    public static final class Quote {
+        private final String symbol;
+        private final double price;
+        private final long timestamp;
+        
+        Quote(String symbol, double price, long timestamp) {
+            this.symbol = symbol;
+            this.price = price;
+            this.timestamp = timestamp;
+        }
+        
+        public String getSymbol() { return symbol; }
+        public double getPrice() { return price; }
+        public long getTimestamp() { return timestamp; }
+    }
+    
+    public static final class Position {
+        private final String symbol;
+        private final int quantity;
+        private final double avgPrice;
+        private final double price;
+        
+        Position(String symbol, int quantity, double avgPrice, double price) {
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.avgPrice = avgPrice;
+            this.price = price;
+        }
+        
+        public String getSymbol() { return symbol; }
+        public int getQuantity() { return quantity; }
+        public double getAvgPrice() { return avgPrice; }
+        public double getPrice() { return price; }
+    }
+}
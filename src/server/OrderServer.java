@@ -0,0 +1,475 @@
+package server;
+
+import model.*;
+import service.CommandSequencer;
+import service.TickSubscription;
+import service.TradingPlatform;
+import util.Counter;
+import util.LatencyHistogram;
+import util.Metrics;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OrderServer implements Closeable {
+    public static final int DEFAULT_PORT = 7070;
+    
+    private static final int READ_BUFFER_BYTES = 16 * 1024;
+    private static final int MAX_PENDING_OUTPUT_BYTES = 1024 * 1024;
+    private static final int QUOTE_HIGH_WATER_BYTES = 64 * 1024;
+    private static final LatencyHistogram REQUEST_LATENCY = Metrics.histogram("server.request");
+    private static final Counter REQUESTS = Metrics.counter("server.requests");
+    private static final Counter SESSIONS_OPENED = Metrics.counter("server.sessionsOpened");
+    
+    private final TradingPlatform platform;
+    private final CommandSequencer sequencer;
+    private final Selector selector;
+    private final ServerSocketChannel acceptor;
+    private final ExecutorService logins;
+    private final Queue<Reply> replies;
+    private final Queue<Session> quoteReady;
+    private final AtomicBoolean wakeupPending;
+    private final AtomicInteger sessions;
+    private final Thread loop;
+    private volatile boolean running;
+    
+    public OrderServer(TradingPlatform platform, InetSocketAddress address) throws IOException {
+        this.platform = platform;
+        this.sequencer = platform.getSequencer();
+        this.selector = Selector.open();
+        this.acceptor = ServerSocketChannel.open();
+        acceptor.bind(address, 1024);
+        acceptor.configureBlocking(false);
+        acceptor.register(selector, SelectionKey.OP_ACCEPT);
+        this.logins = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "server-login");
+            t.setDaemon(true);
+            return t;
+        });
+        this.replies = new ConcurrentLinkedQueue<>();
+        this.quoteReady = new ConcurrentLinkedQueue<>();
+        this.wakeupPending = new AtomicBoolean();
+        this.sessions = new AtomicInteger();
+        this.loop = new Thread(this::run, "order-server");
+    }
+    
+    public void start() {
+        running = true;
+        loop.start();
+    }
+    
+    public int getPort() {
+        return acceptor.socket().getLocalPort();
+    }
+    
+    public int getSessionCount() {
+        return sessions.get();
+    }
+    
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            loop.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logins.shutdownNow();
+    }
+    
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                wakeupPending.set(false);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Session session = (Session) key.attachment();
+                    try {
+                        if (key.isReadable()) read(session);
+                        if (key.isValid() && key.isWritable()) flush(session);
+                    } catch (RuntimeException e) {
+                        closeAfterError(session, e);
+                    }
+                }
+                drainReplies();
+                drainQuotes();
+            }
+        } catch (IOException e) {
+            System.out.println("Order server stopped: " + e.getMessage());
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof Session) closeSession((Session) key.attachment());
+            }
+            try {
+                acceptor.close();
+                selector.close();
+            } catch (IOException e) {
+                System.out.println("Error closing order server: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = acceptor.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Session session = new Session(channel);
+            session.key = channel.register(selector, SelectionKey.OP_READ, session);
+            sessions.incrementAndGet();
+            SESSIONS_OPENED.increment();
+        }
+    }
+    
+    private void read(Session session) {
+        int read;
+        try {
+            read = session.channel.read(session.in);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            closeSession(session);
+            return;
+        }
+        
+        ByteBuffer in = session.in;
+        in.flip();
+        while (in.remaining() >= 4) {
+            int length = in.getInt(in.position());
+            if (length < Protocol.HEADER_BYTES - 4 || length > Protocol.MAX_FRAME_BYTES) {
+                closeSession(session);
+                return;
+            }
+            if (in.remaining() < 4 + length) break;
+            int end = in.position() + 4 + length;
+            ByteBuffer frame = in.duplicate();
+            frame.position(in.position() + 4).limit(end);
+            in.position(end);
+            handle(session, frame);
+            if (!session.channel.isOpen()) return;
+        }
+        in.compact();
+        if (!in.hasRemaining()) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.min(in.capacity() * 2, Protocol.MAX_FRAME_BYTES + 4));
+            in.flip();
+            grown.put(in);
+            session.in = grown;
+        }
+    }
+    
+    private void handle(Session session, ByteBuffer frame) {
+        long start = System.nanoTime();
+        byte code = frame.get();
+        int requestId = frame.getInt();
+        REQUESTS.increment();
+        try {
+            if (code == Protocol.LOGIN) {
+                login(session, requestId, Protocol.getString(frame), start);
+                return;
+            }
+            String username = session.username;
+            if (username == null) {
+                replyError(session, requestId, "Not logged in", start);
+                return;
+            }
+            switch (code) {
+                case Protocol.BUY:
+                case Protocol.SELL: {
+                    String symbol = Protocol.getString(frame);
+                    int quantity = frame.getInt();
+                    if (quantity <= 0) {
+                        replyStatus(session, requestId, false, null, start);
+                        break;
+                    }
+                    CompletableFuture<Boolean> result = code == Protocol.BUY
+                        ? sequencer.buy(username, symbol, quantity)
+                        : sequencer.sell(username, symbol, quantity);
+                    result.whenComplete((ok, error) -> replyStatus(session, requestId, ok, error, start));
+                    break;
+                }
+                case Protocol.PLACE_ORDER: {
+                    String symbol = Protocol.getString(frame);
+                    String action = Protocol.action(frame.get());
+                    int quantity = frame.getInt();
+                    Order.OrderType type = Order.OrderType.values()[frame.get()];
+                    double price = frame.getDouble();
+                    if (!validOrder(quantity, price)) {
+                        replyStatus(session, requestId, false, null, start);
+                        break;
+                    }
+                    Order order = new Order(symbol, action, quantity, type, price);
+                    sequencer.placeOrder(username, order).whenComplete((ok, error) -> {
+                        if (error != null || !ok) {
+                            replyStatus(session, requestId, ok, error, start);
+                            return;
+                        }
+                        ByteBuffer reply = Protocol.frame(Protocol.OK, requestId, Protocol.stringBytes(order.getOrderId()));
+                        Protocol.putString(reply, order.getOrderId());
+                        reply(session, reply, start);
+                    });
+                    break;
+                }
+                case Protocol.CANCEL_ORDER:
+                    sequencer.cancelOrder(username, Protocol.getString(frame))
+                        .whenComplete((ok, error) -> replyStatus(session, requestId, ok, error, start));
+                    break;
+                case Protocol.SUBMIT_LIMIT: {
+                    String symbol = Protocol.getString(frame);
+                    String action = Protocol.action(frame.get());
+                    int quantity = frame.getInt();
+                    double price = frame.getDouble();
+                    if (!validOrder(quantity, price)) {
+                        replyStatus(session, requestId, false, null, start);
+                        break;
+                    }
+                    sequencer.submitLimitOrder(username, symbol, action, quantity, price).whenComplete((id, error) -> {
+                        if (error != null || id < 0) {
+                            replyStatus(session, requestId, false, error, start);
+                            return;
+                        }
+                        ByteBuffer reply = Protocol.frame(Protocol.OK, requestId, 8);
+                        reply.putLong(id);
+                        reply(session, reply, start);
+                    });
+                    break;
+                }
+                case Protocol.CANCEL_LIMIT: {
+                    String symbol = Protocol.getString(frame);
+                    long id = frame.getLong();
+                    sequencer.cancelLimitOrder(username, symbol, id)
+                        .whenComplete((ok, error) -> replyStatus(session, requestId, ok, error, start));
+                    break;
+                }
+                case Protocol.PORTFOLIO: {
+                    User account = platform.getAccounts().get(username);
+                    if (account == null) {
+                        replyError(session, requestId, "Unknown account " + username, start);
+                        break;
+                    }
+                    reply(session, portfolio(requestId, account), start);
+                    break;
+                }
+                case Protocol.SUBSCRIBE:
+                    if (session.quotes == null) {
+                        session.quotes = platform.getMarketData().getTickBus().subscribe("session-" + username,
+                            () -> signalQuotes(session));
+                    }
+                    reply(session, Protocol.frame(Protocol.OK, requestId, 0), start);
+                    break;
+                default:
+                    replyError(session, requestId, "Unknown request " + code, start);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            replyError(session, requestId, "Malformed request", start);
+        }
+    }
+    
+    private void login(Session session, int requestId, String username, long start) {
+        if (session.loginRequested || username.isEmpty()) {
+            replyError(session, requestId, session.loginRequested ? "Already logged in" : "Missing username", start);
+            return;
+        }
+        session.loginRequested = true;
+        CompletableFuture.supplyAsync(() -> platform.getAccounts().getOrLoad(username), logins)
+            .whenComplete((account, error) -> {
+                if (error != null) {
+                    session.loginRequested = false;
+                    replyStatus(session, requestId, false, error, start);
+                    return;
+                }
+                ByteBuffer reply = Protocol.frame(Protocol.OK, requestId, 8);
+                synchronized (account) {
+                    reply.putDouble(account.getBalance());
+                }
+                session.username = username;
+                reply(session, reply, start);
+            });
+    }
+    
+    private ByteBuffer portfolio(int requestId, User account) {
+        synchronized (account) {
+            Portfolio portfolio = account.getPortfolio();
+            int[] capacity = {12};
+            portfolio.forEach((symbol, quantity, avgPrice, mark) -> capacity[0] += Protocol.stringBytes(symbol) + 20);
+            ByteBuffer reply = Protocol.frame(Protocol.OK, requestId, capacity[0]);
+            reply.putDouble(account.getBalance());
+            reply.putInt(portfolio.size());
+            portfolio.forEach((symbol, quantity, avgPrice, mark) -> {
+                Protocol.putString(reply, symbol);
+                reply.putInt(quantity);
+                reply.putDouble(avgPrice);
+                reply.putDouble(mark);
+            });
+            return reply;
+        }
+    }
+    
+    private static boolean validOrder(int quantity, double price) {
+        return quantity > 0 && price > 0 && Double.isFinite(price);
+    }
+    
+    private void replyStatus(Session session, int requestId, Boolean ok, Throwable error, long start) {
+        if (error != null) {
+            replyError(session, requestId, String.valueOf(error.getMessage()), start);
+        } else {
+            reply(session, Protocol.frame(ok ? Protocol.OK : Protocol.REJECTED, requestId, 0), start);
+        }
+    }
+    
+    private void replyError(Session session, int requestId, String message, long start) {
+        ByteBuffer reply = Protocol.frame(Protocol.ERROR, requestId, Protocol.stringBytes(message));
+        Protocol.putString(reply, message);
+        reply(session, reply, start);
+    }
+    
+    private void reply(Session session, ByteBuffer frame, long start) {
+        replies.add(new Reply(session, Protocol.finish(frame)));
+        REQUEST_LATENCY.recordSince(start);
+        if (Thread.currentThread() != loop && wakeupPending.compareAndSet(false, true)) selector.wakeup();
+    }
+    
+    private void signalQuotes(Session session) {
+        quoteReady.add(session);
+        if (Thread.currentThread() != loop && wakeupPending.compareAndSet(false, true)) selector.wakeup();
+    }
+    
+    private void drainQuotes() {
+        Session session;
+        while ((session = quoteReady.poll()) != null) {
+            try {
+                writeQuotes(session);
+            } catch (RuntimeException e) {
+                closeAfterError(session, e);
+            }
+        }
+    }
+    
+    private void writeQuotes(Session session) {
+        if (!session.channel.isOpen()) return;
+        if (session.out.position() >= QUOTE_HIGH_WATER_BYTES) {
+            session.quotesBlocked = true;
+            return;
+        }
+        session.quotes.drain((symbol, price, timestamp) -> {
+            ByteBuffer frame = Protocol.frame(Protocol.QUOTE, 0, Protocol.stringBytes(symbol) + 16);
+            Protocol.putString(frame, symbol);
+            frame.putDouble(price).putLong(timestamp);
+            append(session, Protocol.finish(frame));
+        });
+        if (session.channel.isOpen()) flush(session);
+    }
+    
+    private void append(Session session, ByteBuffer frame) {
+        if (session.out.remaining() < frame.remaining()) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(session.out.capacity() * 2,
+                session.out.position() + frame.remaining()));
+            session.out.flip();
+            grown.put(session.out);
+            session.out = grown;
+        }
+        session.out.put(frame);
+    }
+    
+    private void drainReplies() {
+        Reply reply;
+        Set<Session> touched = new HashSet<>();
+        while ((reply = replies.poll()) != null) {
+            Session session = reply.session;
+            if (!session.channel.isOpen()) continue;
+            if (session.out.position() + reply.frame.remaining() > MAX_PENDING_OUTPUT_BYTES) {
+                closeSession(session);
+                continue;
+            }
+            append(session, reply.frame);
+            touched.add(session);
+        }
+        for (Session session : touched) {
+            try {
+                if (session.channel.isOpen()) flush(session);
+            } catch (RuntimeException e) {
+                closeAfterError(session, e);
+            }
+        }
+    }
+    
+    private void flush(Session session) {
+        ByteBuffer out = session.out;
+        out.flip();
+        try {
+            session.channel.write(out);
+        } catch (IOException e) {
+            closeSession(session);
+            return;
+        } finally {
+            out.compact();
+        }
+        if (!session.key.isValid()) return;
+        int ops = out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ;
+        if (session.key.interestOps() != ops) session.key.interestOps(ops);
+        if (session.quotes != null && out.position() < QUOTE_HIGH_WATER_BYTES && session.quotesBlocked) {
+            session.quotesBlocked = false;
+            quoteReady.add(session);
+        }
+    }
+    
+    private void closeAfterError(Session session, RuntimeException e) {
+        System.out.println("Closing session after error: " + e);
+        closeSession(session);
+    }
+    
+    private void closeSession(Session session) {
+        if (!session.channel.isOpen()) return;
+        if (session.quotes != null) session.quotes.close();
+        session.key.cancel();
+        try {
+            session.channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing session: " + e.getMessage());
+        }
+        sessions.decrementAndGet();
+    }
+    
+    private static class Session {
+        private final SocketChannel channel;
+        private SelectionKey key;
+        private ByteBuffer in;
+        private ByteBuffer out;
+        private volatile boolean loginRequested;
+        private TickSubscription quotes;
+        private boolean quotesBlocked;
+        private volatile String username;
+        
+        Session(SocketChannel channel) {
+            this.channel = channel;
+            this.in = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            this.out = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        }
+    }
+    
+    private static class Reply {
+        private final Session session;
+        private final ByteBuffer frame;
+        
+        Reply(Session session, ByteBuffer frame) {
+            this.session = session;
+            this.frame = frame;
+        }
+    }
+}
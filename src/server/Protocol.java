@@ -0,0 +1,70 @@
+package server;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class Protocol {
+    public static final int MAX_FRAME_BYTES = 64 * 1024;
+    public static final int HEADER_BYTES = 9;
+    
+    public static final byte LOGIN = 1;
+    public static final byte BUY = 2;
+    public static final byte SELL = 3;
+    public static final byte PLACE_ORDER = 4;
+    public static final byte CANCEL_ORDER = 5;
+    public static final byte SUBMIT_LIMIT = 6;
+    public static final byte CANCEL_LIMIT = 7;
+    public static final byte PORTFOLIO = 8;
+    public static final byte SUBSCRIBE = 9;
+    public static final byte QUOTE = 10;
+    
+    public static final byte OK = 0;
+    public static final byte REJECTED = 1;
+    public static final byte ERROR = 2;
+    
+    public static final byte SIDE_BUY = 0;
+    public static final byte SIDE_SELL = 1;
+    
+    private Protocol() {}
+    
+    public static ByteBuffer frame(byte code, int requestId, int payloadCapacity) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payloadCapacity);
+        buffer.putInt(0).put(code).putInt(requestId);
+        return buffer;
+    }
+    
+    public static ByteBuffer finish(ByteBuffer frame) {
+        frame.putInt(0, frame.position() - 4);
+        frame.flip();
+        return frame;
+    }
+    
+    public static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) throw new IllegalArgumentException("String too long: " + bytes.length + " bytes");
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+    
+    public static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort() & 0xFFFF;
+        if (length > buffer.remaining()) throw new BufferUnderflowException();
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    public static int stringBytes(String value) {
+        return 2 + value.length() * 3;
+    }
+    
+    public static String action(byte side) {
+        if (side == SIDE_BUY) return "BUY";
+        if (side == SIDE_SELL) return "SELL";
+        throw new IllegalArgumentException("Unknown side " + side);
+    }
+    
+    public static byte side(String action) {
+        return "BUY".equals(action) ? SIDE_BUY : SIDE_SELL;
+    }
+}
@@ -0,0 +1,82 @@
+package service;
+
+import model.SymbolTable;
+import model.User;
+import database.DatabaseManager;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class AccountRegistry {
+    private final ConcurrentHashMap<String, User> accounts;
+    private final DatabaseManager dbManager;
+    private final SymbolIndex<User> holders;
+    private final SymbolIndex<User> orderHolders;
+    
+    public AccountRegistry(DatabaseManager dbManager) {
+        this.accounts = new ConcurrentHashMap<>();
+        this.dbManager = dbManager;
+        this.holders = new SymbolIndex<>();
+        this.orderHolders = new SymbolIndex<>();
+    }
+    
+    public User get(String username) {
+        return accounts.get(username);
+    }
+    
+    public User getOrLoad(String username) {
+        User account = accounts.get(username);
+        if (account != null) return account;
+        User loaded = dbManager.loadUser(username);
+        if (loaded == null) return null;
+        User existing = accounts.putIfAbsent(username, loaded);
+        return existing != null ? existing : indexHoldings(loaded);
+    }
+    
+    public User open(String username, double initialBalance) {
+        return accounts.computeIfAbsent(username, name -> new User(name, initialBalance));
+    }
+    
+    public void register(User user) {
+        User previous = accounts.put(user.getUsername(), user);
+        if (previous != null && previous != user) {
+            holders.removeEverywhere(previous);
+            orderHolders.removeEverywhere(previous);
+        }
+        indexHoldings(user);
+    }
+    
+    public Collection<User> getAll() {
+        return Collections.unmodifiableCollection(accounts.values());
+    }
+    
+    public int size() {
+        return accounts.size();
+    }
+    
+    public void addHolder(String symbol, User account) {
+        holders.getOrCreate(SymbolTable.idOf(symbol)).add(account);
+    }
+    
+    public Set<User> getHolders(int symbolId) {
+        return holders.get(symbolId);
+    }
+    
+    public void addOrderHolder(String symbol, User account) {
+        orderHolders.getOrCreate(SymbolTable.idOf(symbol)).add(account);
+    }
+    
+    public Set<User> getOrderHolders(int symbolId) {
+        return orderHolders.get(symbolId);
+    }
+    
+    private User indexHoldings(User account) {
+        if (account == null) return null;
+        synchronized (account) {
+            account.getPortfolio().forEach((symbol, quantity, avgPrice, mark) -> addHolder(symbol, account));
+            for (String symbol : account.getOrderBook().getTriggerSymbols()) {
+                addOrderHolder(symbol, account);
+            }
+        }
+        return account;
+    }
+}
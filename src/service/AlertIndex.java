@@ -0,0 +1,77 @@
+package service;
+
+import model.PriceAlert;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class AlertIndex {
+    private final ConcurrentHashMap<String, SymbolAlerts> books;
+    
+    public AlertIndex() {
+        this.books = new ConcurrentHashMap<>();
+    }
+    
+    public void add(PriceAlert alert, double currentPrice) {
+        SymbolAlerts book = books.computeIfAbsent(alert.getSymbol(), k -> new SymbolAlerts());
+        synchronized (book) {
+            if (Double.isNaN(book.lastPrice)) book.lastPrice = currentPrice;
+            book.levelsFor(alert.getDirection())
+                .computeIfAbsent(alert.getLevel(), k -> new ArrayList<>(2))
+                .add(alert);
+            book.size++;
+        }
+    }
+    
+    public boolean remove(PriceAlert alert) {
+        SymbolAlerts book = books.get(alert.getSymbol());
+        if (book == null) return false;
+        synchronized (book) {
+            NavigableMap<Double, List<PriceAlert>> levels = book.levelsFor(alert.getDirection());
+            List<PriceAlert> level = levels.get(alert.getLevel());
+            if (level == null || !level.remove(alert)) return false;
+            if (level.isEmpty()) levels.remove(alert.getLevel());
+            book.size--;
+            return true;
+        }
+    }
+    
+    public void onPrice(String symbol, double price, List<PriceAlert> fired) {
+        SymbolAlerts book = books.get(symbol);
+        if (book == null) return;
+        synchronized (book) {
+            double previous = book.lastPrice;
+            book.lastPrice = price;
+            if (Double.isNaN(previous) || price == previous || book.size == 0) return;
+            
+            NavigableMap<Double, List<PriceAlert>> crossed = price > previous
+                ? book.above.subMap(previous, false, price, true)
+                : book.below.subMap(price, true, previous, false);
+            if (crossed.isEmpty()) return;
+            
+            for (List<PriceAlert> level : crossed.values()) {
+                fired.addAll(level);
+                book.size -= level.size();
+            }
+            crossed.clear();
+        }
+    }
+    
+    public int size(String symbol) {
+        SymbolAlerts book = books.get(symbol);
+        if (book == null) return 0;
+        synchronized (book) {
+            return book.size;
+        }
+    }
+    
+    private static class SymbolAlerts {
+        private final NavigableMap<Double, List<PriceAlert>> above = new TreeMap<>();
+        private final NavigableMap<Double, List<PriceAlert>> below = new TreeMap<>();
+        private double lastPrice = Double.NaN;
+        private int size;
+        
+        NavigableMap<Double, List<PriceAlert>> levelsFor(PriceAlert.Direction direction) {
+            return direction == PriceAlert.Direction.ABOVE ? above : below;
+        }
+    }
+}
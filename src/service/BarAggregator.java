@@ -0,0 +1,112 @@
+package service;
+
+import model.*;
+import java.util.Arrays;
+
+public class BarAggregator {
+    public static final int DEFAULT_RECENT_BARS = 240;
+    
+    private static final BarInterval[] INTERVALS = BarInterval.values();
+    
+    private final BarSink sink;
+    private final int recentBars;
+    private SymbolBars[] barsById;
+    
+    public BarAggregator(BarSink sink) {
+        this(sink, Integer.getInteger("trading.bars.recent", DEFAULT_RECENT_BARS));
+    }
+    
+    public BarAggregator(BarSink sink, int recentBars) {
+        if (recentBars <= 0) throw new IllegalArgumentException("Invalid bar capacity: " + recentBars);
+        this.sink = sink;
+        this.recentBars = recentBars;
+        this.barsById = new SymbolBars[0];
+    }
+    
+    public void addSymbol(int symbolId) {
+        if (symbolId >= barsById.length) {
+            barsById = Arrays.copyOf(barsById, Math.max(symbolId + 1, barsById.length * 2));
+        }
+        if (barsById[symbolId] == null) barsById[symbolId] = new SymbolBars(SymbolTable.nameOf(symbolId));
+    }
+    
+    public void onTick(int symbolId, double price, long timestamp) {
+        SymbolBars bars = symbolId < barsById.length ? barsById[symbolId] : null;
+        if (bars == null) return;
+        for (int i = 0; i < INTERVALS.length; i++) {
+            long offset = timestamp - bars.starts[i];
+            if (bars.ticks[i] > 0 && offset >= 0 && offset < INTERVALS[i].getMillis()) {
+                if (price > bars.highs[i]) bars.highs[i] = price;
+                if (price < bars.lows[i]) bars.lows[i] = price;
+                bars.closes[i] = price;
+                bars.ticks[i]++;
+                continue;
+            }
+            if (bars.ticks[i] > 0) close(bars, i);
+            bars.starts[i] = INTERVALS[i].start(timestamp);
+            bars.opens[i] = price;
+            bars.highs[i] = price;
+            bars.lows[i] = price;
+            bars.closes[i] = price;
+            bars.ticks[i] = 1;
+        }
+    }
+    
+    public BarSeries getBars(int symbolId, BarInterval interval) {
+        SymbolBars bars = symbolId >= 0 && symbolId < barsById.length ? barsById[symbolId] : null;
+        if (bars == null) return new BarSeries(0);
+        int i = interval.ordinal();
+        BarSeries closed = bars.series[i];
+        int size = closed != null ? closed.size() : 0;
+        BarSeries copy = closed != null ? closed.copy(size + 1) : new BarSeries(1);
+        if (bars.ticks[i] > 0) {
+            copy.addBar(bars.starts[i], bars.opens[i], bars.highs[i], bars.lows[i], bars.closes[i], bars.ticks[i]);
+        }
+        return copy;
+    }
+    
+    public void flush() {
+        for (SymbolBars bars : barsById) {
+            if (bars == null) continue;
+            for (int i = 0; i < INTERVALS.length; i++) {
+                if (bars.ticks[i] == 0) continue;
+                sink.onBar(bars.symbol, INTERVALS[i], bars.starts[i],
+                    bars.opens[i], bars.highs[i], bars.lows[i], bars.closes[i], bars.ticks[i]);
+                bars.ticks[i] = 0;
+            }
+        }
+    }
+    
+    private void close(SymbolBars bars, int i) {
+        sink.onBar(bars.symbol, INTERVALS[i], bars.starts[i],
+            bars.opens[i], bars.highs[i], bars.lows[i], bars.closes[i], bars.ticks[i]);
+        BarSeries series = bars.series[i];
+        if (series == null) {
+            series = new BarSeries(recentBars);
+            bars.series[i] = series;
+        }
+        series.addBar(bars.starts[i], bars.opens[i], bars.highs[i], bars.lows[i], bars.closes[i], bars.ticks[i]);
+    }
+    
+    private static final class SymbolBars {
+        final String symbol;
+        final long[] starts;
+        final double[] opens;
+        final double[] highs;
+        final double[] lows;
+        final double[] closes;
+        final int[] ticks;
+        final BarSeries[] series;
+        
+        SymbolBars(String symbol) {
+            this.symbol = symbol;
+            this.starts = new long[INTERVALS.length];
+            this.opens = new double[INTERVALS.length];
+            this.highs = new double[INTERVALS.length];
+            this.lows = new double[INTERVALS.length];
+            this.closes = new double[INTERVALS.length];
+            this.ticks = new int[INTERVALS.length];
+            this.series = new BarSeries[INTERVALS.length];
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package service;
+
+import model.Order;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+public class CommandSequencer {
+    public enum CommandType { BUY, SELL, PLACE_ORDER, CANCEL_ORDER, SUBMIT_LIMIT, CANCEL_LIMIT, UPDATE_MARKET, SNAPSHOT, STARTUP, HALT }
+    
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int SPIN_TRIES = 1000;
+    private static final long IDLE_PARK_NANOS = 100_000;
+    private static final long HALTED = -1;
+    
+    private final TradingPlatform platform;
+    private final Command[] ring;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed;
+    private final Thread worker;
+    private volatile long consumed;
+    private volatile boolean sleeping;
+    private volatile boolean halted;
+    
+    public CommandSequencer(TradingPlatform platform) {
+        this(platform, DEFAULT_CAPACITY);
+    }
+    
+    public CommandSequencer(TradingPlatform platform, int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.platform = platform;
+        this.ring = new Command[size];
+        this.published = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.claimed = new AtomicLong();
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Command();
+            published.set(i, -1);
+        }
+        this.worker = new Thread(this::run, "trading-core");
+        this.worker.setDaemon(true);
+    }
+    
+    public void start() {
+        worker.start();
+    }
+    
+    public void shutdown() {
+        if (!worker.isAlive()) return;
+        long seq = claim();
+        slot(seq).type = CommandType.HALT;
+        publish(seq);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public CompletableFuture<Boolean> buy(String username, String symbol, int quantity) {
+        return trade(CommandType.BUY, username, symbol, quantity);
+    }
+    
+    public CompletableFuture<Boolean> sell(String username, String symbol, int quantity) {
+        return trade(CommandType.SELL, username, symbol, quantity);
+    }
+    
+    public CompletableFuture<Boolean> placeOrder(Order order) {
+        return placeOrder(null, order);
+    }
+    
+    public CompletableFuture<Boolean> placeOrder(String username, Order order) {
+        long seq = claim();
+        Command c = slot(seq);
+        c.type = CommandType.PLACE_ORDER;
+        c.username = username;
+        c.order = order;
+        return publish(seq);
+    }
+    
+    public CompletableFuture<Boolean> cancelOrder(String orderId) {
+        return cancelOrder(null, orderId);
+    }
+    
+    public CompletableFuture<Boolean> cancelOrder(String username, String orderId) {
+        long seq = claim();
+        Command c = slot(seq);
+        c.type = CommandType.CANCEL_ORDER;
+        c.username = username;
+        c.orderId = orderId;
+        return publish(seq);
+    }
+    
+    public CompletableFuture<Long> submitLimitOrder(String username, String symbol, String action, int quantity, double limitPrice) {
+        long seq = claim();
+        Command c = slot(seq);
+        c.type = CommandType.SUBMIT_LIMIT;
+        c.username = username;
+        c.symbol = symbol;
+        c.action = action;
+        c.quantity = quantity;
+        c.price = limitPrice;
+        return publish(seq);
+    }
+    
+    public CompletableFuture<Boolean> cancelLimitOrder(String username, String symbol, long limitOrderId) {
+        long seq = claim();
+        Command c = slot(seq);
+        c.type = CommandType.CANCEL_LIMIT;
+        c.username = username;
+        c.symbol = symbol;
+        c.limitOrderId = limitOrderId;
+        return publish(seq);
+    }
+    
+    public CompletableFuture<Boolean> updateMarket() {
+        long seq = claim();
+        slot(seq).type = CommandType.UPDATE_MARKET;
+        return publish(seq);
+    }
+    
+    public CompletableFuture<MarketSnapshot> snapshot(Collection<String> chartSymbols) {
+        long seq = claim();
+        Command c = slot(seq);
+        c.type = CommandType.SNAPSHOT;
+        c.symbols = chartSymbols;
+        return publish(seq);
+    }
+    
+    public CompletableFuture<Boolean> completeStartup() {
+        long seq = claim();
+        slot(seq).type = CommandType.STARTUP;
+        return publish(seq);
+    }
+    
+    private CompletableFuture<Boolean> trade(CommandType type, String username, String symbol, int quantity) {
+        long seq = claim();
+        Command c = slot(seq);
+        c.type = type;
+        c.username = username;
+        c.symbol = symbol;
+        c.quantity = quantity;
+        return publish(seq);
+    }
+    
+    private long claim() {
+        if (halted) return HALTED;
+        long seq = claimed.getAndIncrement();
+        while (seq - consumed >= ring.length) {
+            if (halted) return HALTED;
+            LockSupport.parkNanos(1_000);
+        }
+        return seq;
+    }
+    
+    private Command slot(long seq) {
+        return seq == HALTED ? new Command() : ring[index(seq)];
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> publish(long seq) {
+        if (seq == HALTED) return CompletableFuture.failedFuture(haltedError());
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        ring[index(seq)].result = result;
+        published.set(index(seq), seq);
+        if (halted) {
+            failUnconsumed();
+        } else if (sleeping) {
+            LockSupport.unpark(worker);
+        }
+        return (CompletableFuture<T>) (CompletableFuture<?>) result;
+    }
+    
+    private void failUnconsumed() {
+        long from = consumed;
+        for (long seq = from; seq < from + ring.length; seq++) {
+            if (published.get(index(seq)) == seq) ring[index(seq)].result.completeExceptionally(haltedError());
+        }
+    }
+    
+    private static IllegalStateException haltedError() {
+        return new IllegalStateException("sequencer halted");
+    }
+    
+    private int index(long seq) {
+        return (int) seq & mask;
+    }
+    
+    private void run() {
+        long next = 0;
+        int idle = 0;
+        while (true) {
+            long end = next;
+            while (end - next < ring.length && published.get(index(end)) == end) end++;
+            
+            if (end == next) {
+                if (++idle < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    sleeping = true;
+                    if (published.get(index(next)) != next) LockSupport.parkNanos(IDLE_PARK_NANOS);
+                    sleeping = false;
+                }
+                continue;
+            }
+            idle = 0;
+            
+            for (long seq = next; seq < end; seq++) {
+                Command c = slot(seq);
+                boolean halt = c.type == CommandType.HALT;
+                CompletableFuture<Object> result = c.result;
+                try {
+                    result.complete(execute(c));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+                c.clear();
+                if (halt) {
+                    consumed = seq + 1;
+                    halted = true;
+                    failUnconsumed();
+                    return;
+                }
+            }
+            next = end;
+            consumed = next;
+        }
+    }
+    
+    private Object execute(Command c) {
+        if (c.type != CommandType.SNAPSHOT) platform.completeStartup();
+        switch (c.type) {
+            case BUY:
+                return c.username == null
+                    ? platform.buyStock(c.symbol, c.quantity)
+                    : platform.buyStock(c.username, c.symbol, c.quantity);
+            case SELL:
+                return c.username == null
+                    ? platform.sellStock(c.symbol, c.quantity)
+                    : platform.sellStock(c.username, c.symbol, c.quantity);
+            case PLACE_ORDER:
+                if (c.username != null) return platform.placeOrder(c.username, c.order);
+                platform.placeOrder(c.order);
+                return true;
+            case CANCEL_ORDER:
+                if (c.username != null) return platform.cancelOrder(c.username, c.orderId);
+                platform.cancelOrder(c.orderId);
+                return true;
+            case SUBMIT_LIMIT:
+                return platform.submitLimitOrder(c.username, c.symbol, c.action, c.quantity, c.price);
+            case CANCEL_LIMIT:
+                return platform.cancelLimitOrder(c.username, c.symbol, c.limitOrderId);
+            case UPDATE_MARKET:
+                return platform.updateMarket();
+            case SNAPSHOT:
+                return MarketSnapshot.capture(platform, c.symbols);
+            default:
+                return true;
+        }
+    }
+    
+    private static class Command {
+        private CommandType type;
+        private String username;
+        private String symbol;
+        private String action;
+        private int quantity;
+        private double price;
+        private Order order;
+        private String orderId;
+        private long limitOrderId;
+        private Collection<String> symbols;
+        private CompletableFuture<Object> result;
+        
+        void clear() {
+            username = symbol = action = orderId = null;
+            order = null;
+            symbols = null;
+            result = null;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class CsvReplayFeed extends ReplayFeed {
+    private final BufferedReader reader;
+    private final Path file;
+    private long lineNumber;
+    
+    public CsvReplayFeed(Path file, double speed) throws IOException {
+        super(speed);
+        this.file = file;
+        this.reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+    }
+    
+    @Override
+    protected boolean read() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            
+            String[] fields = line.split(",");
+            if (fields.length < 3) throw malformed(line);
+            if (lineNumber == 1 && fields[0].trim().equalsIgnoreCase("symbol")) continue;
+            try {
+                symbol = fields[0].trim().toUpperCase();
+                price = Double.parseDouble(fields[1].trim());
+                timestamp = Long.parseLong(fields[2].trim());
+            } catch (NumberFormatException e) {
+                throw malformed(line);
+            }
+            return true;
+        }
+        return false;
+    }
+    
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    private IOException malformed(String line) {
+        return new IOException("Malformed tick at " + file + ":" + lineNumber + ": " + line);
+    }
+}
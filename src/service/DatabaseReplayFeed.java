@@ -0,0 +1,52 @@
+package service;
+
+import database.DatabaseManager;
+
+public class DatabaseReplayFeed extends ReplayFeed {
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+    
+    private final DatabaseManager dbManager;
+    private final long fromTimestamp;
+    private final String[] symbols;
+    private final double[] prices;
+    private final long[] timestamps;
+    private long lastRowId;
+    private int count;
+    private int position;
+    private boolean lastPage;
+    
+    public DatabaseReplayFeed(DatabaseManager dbManager, long fromTimestamp, double speed) {
+        this(dbManager, fromTimestamp, speed, DEFAULT_PAGE_SIZE);
+    }
+    
+    public DatabaseReplayFeed(DatabaseManager dbManager, long fromTimestamp, double speed, int pageSize) {
+        super(speed);
+        this.dbManager = dbManager;
+        this.fromTimestamp = fromTimestamp;
+        this.symbols = new String[pageSize];
+        this.prices = new double[pageSize];
+        this.timestamps = new long[pageSize];
+    }
+    
+    @Override
+    protected boolean read() {
+        if (position == count) {
+            if (lastPage) return false;
+            count = 0;
+            position = 0;
+            lastRowId = dbManager.loadPriceTicks(lastRowId, fromTimestamp, symbols.length, (s, p, t) -> {
+                symbols[count] = s;
+                prices[count] = p;
+                timestamps[count] = t;
+                count++;
+            });
+            lastPage = count < symbols.length;
+            if (count == 0) return false;
+        }
+        symbol = symbols[position];
+        price = prices[position];
+        timestamp = timestamps[position];
+        position++;
+        return true;
+    }
+}
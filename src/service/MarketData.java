@@ -2,77 +2,269 @@ package service;
 
 import model.*;
 import java.util.*;
+import database.BarWriter;
 import database.DatabaseManager;
+import database.PriceHistoryWriter;
+import database.TickFile;
+import database.TickStore;
+import java.io.IOException;
 
 public class MarketData {
+    public static final int DEFAULT_MAX_TICK_SYMBOLS = 256;
+    
     private Map<String, Stock> stocks;
-    private Map<String, PriceHistory> priceHistories;
-    private Random random;
+    private Stock[] stocksById;
+    private PriceHistory[] historiesById;
+    private TickFile[] ticksById;
+    private double[] prices;
+    private int[] symbolIds;
+    private int symbolCount;
+    private final long seed;
+    private long historyOrigin;
+    private boolean seedingHistory;
     private DatabaseManager dbManager;
+    private PriceHistoryWriter priceWriter;
+    private BarWriter barWriter;
+    private final BarAggregator bars;
+    private final BarInterval chartInterval;
+    private TickStore tickStore;
+    private volatile MarketDataFeed feed;
+    private final TickSink tickSink;
+    private final ThreadLocal<PriceRows> priceRows;
+    private final TickBus tickBus;
+    private boolean recording;
+    private final boolean ticksEnabled;
+    private final int maxTickSymbols;
     
     public MarketData() {
-        this.stocks = new HashMap<>();
-        this.priceHistories = new HashMap<>();
-        this.random = new Random();
-        this.dbManager = new DatabaseManager();
+        this.stocks = new LinkedHashMap<>();
+        this.stocksById = new Stock[0];
+        this.historiesById = new PriceHistory[0];
+        this.ticksById = new TickFile[0];
+        this.prices = new double[0];
+        this.symbolIds = new int[16];
+        this.seed = Long.getLong("trading.market.seed", System.nanoTime());
+        this.dbManager = DatabaseManager.getInstance();
+        this.priceWriter = new PriceHistoryWriter(dbManager);
+        this.barWriter = new BarWriter(dbManager);
+        this.bars = new BarAggregator(barWriter);
+        this.chartInterval = BarInterval.parse(System.getProperty("trading.chart.interval", "1m"));
+        this.tickStore = new TickStore();
+        this.tickBus = new TickBus();
+        this.ticksEnabled = Boolean.parseBoolean(System.getProperty("trading.ticks.enabled", "true"));
+        this.maxTickSymbols = Integer.getInteger("trading.ticks.maxSymbols", DEFAULT_MAX_TICK_SYMBOLS);
+        this.tickSink = new TickSink() {
+            @Override
+            public void onTick(String symbol, double price, long timestamp) {
+                applyTick(symbol, price, timestamp);
+            }
+            
+            @Override
+            public void onTick(int symbolId, double price, long timestamp) {
+                applyTick(symbolId, price, timestamp);
+            }
+            
+            @Override
+            public void endBatch() {
+                priceRows.get().flushTo(priceWriter);
+            }
+        };
+        this.priceRows = ThreadLocal.withInitial(() -> new PriceRows(RandomWalkFeed.BLOCK_SIZE));
         initializeMarket();
+        this.feed = new RandomWalkFeed(this, seed);
     }
     
     private void initializeMarket() {
-        stocks.put("AAPL", new Stock("AAPL", "Apple Inc.", 175.50));
-        stocks.put("GOOGL", new Stock("GOOGL", "Alphabet Inc.", 140.25));
-        stocks.put("MSFT", new Stock("MSFT", "Microsoft Corp.", 380.75));
-        stocks.put("AMZN", new Stock("AMZN", "Amazon.com Inc.", 145.30));
-        stocks.put("TSLA", new Stock("TSLA", "Tesla Inc.", 245.60));
-        
-        for (String symbol : stocks.keySet()) {
-            priceHistories.put(symbol, new PriceHistory(symbol));
+        historyOrigin = System.currentTimeMillis();
+        seedingHistory = true;
+        for (Stock stock : SymbolUniverse.load()) {
+            addStock(stock);
+        }
+        seedingHistory = false;
+        if (ticksEnabled && symbolCount > maxTickSymbols) {
+            System.out.println("Tick files disabled: " + symbolCount + " symbols exceeds trading.ticks.maxSymbols="
+                + maxTickSymbols);
         }
-        
-        initializePriceHistory();
     }
     
-    private void initializePriceHistory() {
-        long currentTime = System.currentTimeMillis();
+    public void addStock(Stock stock) {
+        int id = SymbolTable.idOf(stock.getSymbol());
+        if (getSymbolId(stock.getSymbol()) >= 0) return;
+        if (id >= stocksById.length) {
+            int capacity = Math.max(id + 1, stocksById.length * 2);
+            stocksById = Arrays.copyOf(stocksById, capacity);
+            historiesById = Arrays.copyOf(historiesById, capacity);
+            ticksById = Arrays.copyOf(ticksById, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+        stocksById[id] = stock;
+        historiesById[id] = seedingHistory ? null : new PriceHistory(stock.getSymbol());
+        prices[id] = stock.getCurrentPrice();
+        if (symbolCount == symbolIds.length) symbolIds = Arrays.copyOf(symbolIds, symbolCount * 2);
+        symbolIds[symbolCount++] = id;
+        stocks.put(stock.getSymbol(), stock);
+        bars.addSymbol(id);
+        tickBus.publish(id, stock.getCurrentPrice(), System.currentTimeMillis());
+    }
+    
+    private PriceHistory history(int id) {
+        PriceHistory history = historiesById[id];
+        if (history == null) {
+            history = seedHistory(stocksById[id], id);
+            historiesById[id] = history;
+        }
+        return history;
+    }
+    
+    private PriceHistory seedHistory(Stock stock, int id) {
+        PriceHistory history = new PriceHistory(stock.getSymbol());
+        SplittableRandom random = new SplittableRandom(seed + id);
         long interval = 10000;
+        double basePrice = stock.getCurrentPrice();
         
-        for (Stock stock : stocks.values()) {
-            PriceHistory history = priceHistories.get(stock.getSymbol());
-            double basePrice = stock.getCurrentPrice();
-            
-            for (int i = 30; i >= 0; i--) {
-                double variation = (random.nextDouble() - 0.5) * 20;
-                double price = Math.max(1, basePrice + variation);
-                history.addPrice(price, currentTime - (i * interval));
-            }
-            
-            stock.setCurrentPrice(basePrice);
+        for (int i = 30; i >= 0; i--) {
+            double variation = (random.nextDouble() - 0.5) * 20;
+            double price = Math.max(1, basePrice + variation);
+            history.addPrice(price, historyOrigin - (i * interval));
         }
+        return history;
     }
     
-    public void updatePrices() {
-        long timestamp = System.currentTimeMillis();
-        for (Stock stock : stocks.values()) {
-            double change = (random.nextDouble() - 0.5) * 10;
-            double newPrice = Math.max(1, stock.getCurrentPrice() + change);
-            stock.setCurrentPrice(newPrice);
-            
-            PriceHistory history = priceHistories.get(stock.getSymbol());
-            history.addPrice(newPrice, timestamp);
-            dbManager.savePriceHistory(stock.getSymbol(), newPrice);
+    public boolean updatePrices() {
+        MarketDataFeed current = feed;
+        recording = current.isLive();
+        int published = current.publish(tickSink);
+        tickSink.endBatch();
+        return published > 0;
+    }
+    
+    public MarketDataFeed setFeed(MarketDataFeed feed) {
+        MarketDataFeed previous = this.feed;
+        this.feed = feed;
+        return previous;
+    }
+    
+    public MarketDataFeed getFeed() {
+        return feed;
+    }
+    
+    private void applyTick(String symbol, double price, long timestamp) {
+        int id = getSymbolId(symbol);
+        if (id < 0) {
+            addStock(new Stock(symbol, symbol, price));
+            id = getSymbolId(symbol);
         }
+        applyTick(id, price, timestamp);
+    }
+    
+    private void applyTick(int id, double price, long timestamp) {
+        PriceHistory history = history(id);
+        prices[id] = price;
+        
+        Stock stock = stocksById[id];
+        stock.setCurrentPrice(price);
+        history.addPrice(price, timestamp);
+        tickBus.publish(id, price, timestamp);
+        if (recording) {
+            PriceRows rows = priceRows.get();
+            if (rows.add(stock.getSymbol(), price, timestamp)) rows.flushTo(priceWriter);
+            bars.onTick(id, price, timestamp);
+            appendTick(id, price, timestamp);
+        }
+    }
+    
+    private void appendTick(int id, double price, long timestamp) {
+        if (!ticksEnabled || symbolCount > maxTickSymbols) return;
+        try {
+            TickFile ticks = ticksById[id];
+            if (ticks == null) {
+                ticks = tickStore.open(stocksById[id].getSymbol());
+                ticksById[id] = ticks;
+            }
+            ticks.append(price, timestamp);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    public void shutdown() {
+        feed.close();
+        bars.flush();
+        barWriter.close();
+        priceWriter.close();
+        tickStore.close();
     }
     
     public Stock getStock(String symbol) {
         return stocks.get(symbol);
     }
     
+    public Stock getStock(int symbolId) {
+        return symbolId < stocksById.length ? stocksById[symbolId] : null;
+    }
+    
+    public int getSymbolId(String symbol) {
+        int id = SymbolTable.lookup(symbol);
+        return id >= 0 && id < stocksById.length && stocksById[id] != null ? id : -1;
+    }
+    
+    public double getPrice(int symbolId) {
+        return symbolId >= 0 && symbolId < stocksById.length && stocksById[symbolId] != null ? prices[symbolId] : Double.NaN;
+    }
+    
+    int getSymbolIdAt(int index) {
+        return symbolIds[index];
+    }
+    
+    public int getSymbolCount() {
+        return symbolCount;
+    }
+    
     public Map<String, Stock> getAllStocks() {
-        return new HashMap<>(stocks);
+        return Collections.unmodifiableMap(stocks);
     }
     
     public PriceHistory getPriceHistory(String symbol) {
-        return priceHistories.get(symbol);
+        int id = getSymbolId(symbol);
+        return id >= 0 ? history(id) : null;
+    }
+    
+    public PriceHistory getPriceHistory(int symbolId) {
+        return history(symbolId);
+    }
+    
+    public BarSeries getBars(String symbol, BarInterval interval) {
+        return bars.getBars(getSymbolId(symbol), interval);
+    }
+    
+    public BarSeries getBarHistory(String symbol, BarInterval interval, long fromTimestamp, long toTimestamp, int limit) {
+        return dbManager.loadBars(symbol, interval, fromTimestamp, toTimestamp, limit);
+    }
+    
+    public PriceSeries getChartSeries(String symbol) {
+        int id = getSymbolId(symbol);
+        if (id < 0) return null;
+        if (feed.isLive()) {
+            BarSeries series = bars.getBars(id, chartInterval);
+            if (series.size() > 1) return series;
+        }
+        return history(id).snapshot();
+    }
+    
+    public TickBus getTickBus() {
+        return tickBus;
+    }
+    
+    public TickStore getTickStore() {
+        return tickStore;
+    }
+    
+    public PriceSeries getTickHistory(String symbol, long fromTimestamp, long toTimestamp) {
+        return tickStore.range(symbol, fromTimestamp, toTimestamp);
+    }
+    
+    public PriceSeries getRecentTicks(String symbol, int ticks) {
+        return tickStore.tail(symbol, ticks);
     }
     
     public void displayMarket() {
@@ -81,4 +273,30 @@ public class MarketData {
             System.out.println(stock);
         }
     }
+    
+    private static class PriceRows {
+        private final String[] symbols;
+        private final double[] prices;
+        private final long[] timestamps;
+        private int size;
+        
+        PriceRows(int capacity) {
+            this.symbols = new String[capacity];
+            this.prices = new double[capacity];
+            this.timestamps = new long[capacity];
+        }
+        
+        boolean add(String symbol, double price, long timestamp) {
+            symbols[size] = symbol;
+            prices[size] = price;
+            timestamps[size] = timestamp;
+            return ++size == symbols.length;
+        }
+        
+        void flushTo(PriceHistoryWriter writer) {
+            if (size == 0) return;
+            writer.enqueue(symbols, prices, timestamps, size);
+            size = 0;
+        }
+    }
 }
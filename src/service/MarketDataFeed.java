@@ -0,0 +1,19 @@
+package service;
+
+import model.TickSink;
+
+public interface MarketDataFeed extends AutoCloseable {
+    int publish(TickSink sink);
+    
+    default long delayNanos() {
+        return 0;
+    }
+    
+    default boolean isLive() {
+        return true;
+    }
+    
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,99 @@
+package service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+public class MarketEngine {
+    public static final long DEFAULT_UPDATE_INTERVAL_MS = 10000;
+    
+    private final TradingPlatform platform;
+    private final long updateIntervalMillis;
+    private final List<Consumer<MarketSnapshot>> listeners;
+    private final Set<String> chartSymbols;
+    private ScheduledExecutorService scheduler;
+    
+    public MarketEngine(TradingPlatform platform) {
+        this(platform, Long.getLong("trading.market.updateIntervalMs", DEFAULT_UPDATE_INTERVAL_MS));
+    }
+    
+    public MarketEngine(TradingPlatform platform, long updateIntervalMillis) {
+        this.platform = platform;
+        this.updateIntervalMillis = updateIntervalMillis;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.chartSymbols = new CopyOnWriteArraySet<>();
+    }
+    
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "market-engine");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.execute(this::refreshNow);
+        scheduler.scheduleWithFixedDelay(this::updateNow, updateIntervalMillis, updateIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    public void stop() {
+        ScheduledExecutorService current;
+        synchronized (this) {
+            current = scheduler;
+            scheduler = null;
+        }
+        if (current == null) return;
+        current.shutdown();
+        try {
+            current.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public void addListener(Consumer<MarketSnapshot> listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(Consumer<MarketSnapshot> listener) {
+        listeners.remove(listener);
+    }
+    
+    public void setChartSymbols(Collection<String> symbols) {
+        chartSymbols.clear();
+        chartSymbols.addAll(symbols);
+    }
+    
+    public CompletableFuture<MarketSnapshot> update() {
+        platform.getSequencer().updateMarket();
+        return refresh();
+    }
+    
+    public CompletableFuture<MarketSnapshot> refresh() {
+        return platform.getSequencer().snapshot(chartSymbols).thenApply(this::publish);
+    }
+    
+    private void updateNow() {
+        try {
+            update().join();
+        } catch (CompletionException e) {
+            System.out.println("Market update failed: " + e.getCause());
+        }
+    }
+    
+    private void refreshNow() {
+        try {
+            refresh().join();
+        } catch (CompletionException e) {
+            System.out.println("Market snapshot failed: " + e.getCause());
+        }
+    }
+    
+    private MarketSnapshot publish(MarketSnapshot snapshot) {
+        for (Consumer<MarketSnapshot> listener : listeners) {
+            listener.accept(snapshot);
+        }
+        return snapshot;
+    }
+}
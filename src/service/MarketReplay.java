@@ -0,0 +1,31 @@
+package service;
+
+import java.util.concurrent.locks.LockSupport;
+
+public class MarketReplay {
+    private final TradingPlatform platform;
+    
+    public MarketReplay(TradingPlatform platform) {
+        this.platform = platform;
+    }
+    
+    public long run(MarketDataFeed feed) {
+        MarketData marketData = platform.getMarketData();
+        MarketDataFeed previous = marketData.setFeed(feed);
+        long steps = 0;
+        try {
+            while (true) {
+                long delay;
+                while ((delay = feed.delayNanos()) > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+                if (!platform.getSequencer().updateMarket().join()) break;
+                steps++;
+            }
+        } finally {
+            marketData.setFeed(previous);
+            feed.close();
+        }
+        return steps;
+    }
+}
@@ -0,0 +1,168 @@
+package service;
+
+import model.*;
+import java.util.*;
+
+public final class MarketSnapshot {
+    public static final int RECENT_TRANSACTIONS = 10;
+    
+    private final long timestamp;
+    private final String[] symbols;
+    private final String[] names;
+    private final double[] prices;
+    private final double balance;
+    private final double marketValue;
+    private final double costBasis;
+    private final List<Position> positions;
+    private final List<Transaction> recentTransactions;
+    private final List<WatchEntry> watchlist;
+    private final List<OrderRow> orders;
+    private final Map<String, PriceSeries> charts;
+    
+    private MarketSnapshot(long timestamp, String[] symbols, String[] names, double[] prices,
+                           double balance, double marketValue, double costBasis,
+                           List<Position> positions, List<Transaction> recentTransactions,
+                           List<WatchEntry> watchlist, List<OrderRow> orders, Map<String, PriceSeries> charts) {
+        this.timestamp = timestamp;
+        this.symbols = symbols;
+        this.names = names;
+        this.prices = prices;
+        this.balance = balance;
+        this.marketValue = marketValue;
+        this.costBasis = costBasis;
+        this.positions = Collections.unmodifiableList(positions);
+        this.recentTransactions = Collections.unmodifiableList(recentTransactions);
+        this.watchlist = Collections.unmodifiableList(watchlist);
+        this.orders = Collections.unmodifiableList(orders);
+        this.charts = Collections.unmodifiableMap(charts);
+    }
+    
+    static MarketSnapshot capture(TradingPlatform platform, Collection<String> chartSymbols) {
+        MarketData market = platform.getMarketData();
+        int count = market.getSymbolCount();
+        String[] symbols = new String[count];
+        String[] names = new String[count];
+        double[] prices = new double[count];
+        for (int i = 0; i < count; i++) {
+            Stock stock = market.getStock(market.getSymbolIdAt(i));
+            symbols[i] = stock.getSymbol();
+            names[i] = stock.getName();
+            prices[i] = stock.getCurrentPrice();
+        }
+        
+        Map<String, PriceSeries> charts = new LinkedHashMap<>();
+        for (String symbol : chartSymbols) {
+            PriceSeries chart = market.getChartSeries(symbol);
+            if (chart != null) charts.put(symbol, chart);
+        }
+        
+        User user = platform.getUser();
+        synchronized (user) {
+            Portfolio portfolio = user.getPortfolio();
+            List<Position> positions = new ArrayList<>(portfolio.size());
+            portfolio.forEach((symbol, qty, avgPrice, mark) -> {
+                Stock stock = market.getStock(symbol);
+                if (stock != null) positions.add(new Position(symbol, qty, avgPrice, stock.getCurrentPrice()));
+            });
+            
+            List<Transaction> history = user.getTransactionHistory();
+            List<Transaction> recent = new ArrayList<>(RECENT_TRANSACTIONS);
+            for (int i = history.size() - 1; i >= Math.max(0, history.size() - RECENT_TRANSACTIONS); i--) {
+                recent.add(history.get(i));
+            }
+            
+            Watchlist watched = user.getWatchlist();
+            List<WatchEntry> watchlist = new ArrayList<>();
+            for (String symbol : watched.getSymbols()) {
+                Stock stock = market.getStock(symbol);
+                if (stock != null) watchlist.add(new WatchEntry(symbol, stock.getCurrentPrice(), watched.getAlerts(symbol)));
+            }
+            
+            List<OrderRow> orders = new ArrayList<>();
+            for (Order order : user.getOrderBook().getAllOrders()) {
+                orders.add(new OrderRow(order));
+            }
+            
+            return new MarketSnapshot(System.currentTimeMillis(), symbols, names, prices,
+                user.getBalance(), portfolio.getMarketValue(), portfolio.getCostBasis(),
+                positions, recent, watchlist, orders, charts);
+        }
+    }
+    
+    public long getTimestamp() { return timestamp; }
+    public int getQuoteCount() { return symbols.length; }
+    public String getSymbol(int index) { return symbols[index]; }
+    public String getName(int index) { return names[index]; }
+    public double getPrice(int index) { return prices[index]; }
+    public double getBalance() { return balance; }
+    public double getMarketValue() { return marketValue; }
+    public double getCostBasis() { return costBasis; }
+    public double getUnrealizedProfitLoss() { return marketValue - costBasis; }
+    public List<Position> getPositions() { return positions; }
+    public List<Transaction> getRecentTransactions() { return recentTransactions; }
+    public List<WatchEntry> getWatchlist() { return watchlist; }
+    public List<OrderRow> getOrders() { return orders; }
+    public PriceSeries getChart(String symbol) { return charts.get(symbol); }
+    
+    public static final class Position {
+        private final String symbol;
+        private final int quantity;
+        private final double avgPrice;
+        private final double price;
+        
+        Position(String symbol, int quantity, double avgPrice, double price) {
+            this.symbol = symbol;
+            this.quantity = quantity;
+            this.avgPrice = avgPrice;
+            this.price = price;
+        }
+        
+        public String getSymbol() { return symbol; }
+        public int getQuantity() { return quantity; }
+        public double getAvgPrice() { return avgPrice; }
+        public double getPrice() { return price; }
+        public double getValue() { return price * quantity; }
+        public double getProfitLoss() { return (price - avgPrice) * quantity; }
+    }
+    
+    public static final class WatchEntry {
+        private final String symbol;
+        private final double price;
+        private final List<PriceAlert> alerts;
+        
+        WatchEntry(String symbol, double price, List<PriceAlert> alerts) {
+            this.symbol = symbol;
+            this.price = price;
+            this.alerts = Collections.unmodifiableList(alerts);
+        }
+        
+        public String getSymbol() { return symbol; }
+        public double getPrice() { return price; }
+        public List<PriceAlert> getAlerts() { return alerts; }
+    }
+    
+    public static final class OrderRow {
+        private final String orderId;
+        private final Order.OrderType type;
+        private final String symbol;
+        private final int quantity;
+        private final double targetPrice;
+        private final Order.OrderStatus status;
+        
+        OrderRow(Order order) {
+            this.orderId = order.getOrderId();
+            this.type = order.getType();
+            this.symbol = order.getSymbol();
+            this.quantity = order.getQuantity();
+            this.targetPrice = order.getTargetPrice();
+            this.status = order.getStatus();
+        }
+        
+        public String getOrderId() { return orderId; }
+        public Order.OrderType getType() { return type; }
+        public String getSymbol() { return symbol; }
+        public int getQuantity() { return quantity; }
+        public double getTargetPrice() { return targetPrice; }
+        public Order.OrderStatus getStatus() { return status; }
+    }
+}
@@ -0,0 +1,52 @@
+package service;
+
+import model.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class MatchingEngine {
+    private final ConcurrentHashMap<String, LimitOrderBook> books;
+    private final FillListener listener;
+    private final AtomicLong nextOrderId;
+    
+    public MatchingEngine(FillListener listener) {
+        this.books = new ConcurrentHashMap<>();
+        this.listener = listener;
+        this.nextOrderId = new AtomicLong(1);
+    }
+    
+    public long nextOrderId() {
+        return nextOrderId.getAndIncrement();
+    }
+    
+    public int submit(long orderId, String account, String symbol, boolean buy, double limitPrice, int quantity) {
+        LimitOrderBook book = books.computeIfAbsent(symbol, LimitOrderBook::new);
+        synchronized (book) {
+            return book.submit(orderId, account, buy, LimitOrderBook.toTicks(limitPrice), quantity, listener);
+        }
+    }
+    
+    public LimitOrderBook.RestingOrder cancel(String account, String symbol, long orderId) {
+        LimitOrderBook book = books.get(symbol);
+        if (book == null) return null;
+        synchronized (book) {
+            return book.cancel(orderId, account);
+        }
+    }
+    
+    public Map<String, List<LimitOrderBook.RestingOrder>> cancelAll() {
+        Map<String, List<LimitOrderBook.RestingOrder>> cancelled = new HashMap<>();
+        for (LimitOrderBook book : books.values()) {
+            synchronized (book) {
+                List<LimitOrderBook.RestingOrder> orders = book.cancelAll();
+                if (!orders.isEmpty()) cancelled.put(book.getSymbol(), orders);
+            }
+        }
+        return cancelled;
+    }
+    
+    public LimitOrderBook getBook(String symbol) {
+        return books.get(symbol);
+    }
+}
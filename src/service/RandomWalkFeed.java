@@ -0,0 +1,92 @@
+package service;
+
+import model.TickSink;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class RandomWalkFeed implements MarketDataFeed {
+    public static final int BLOCK_SIZE = 1024;
+    
+    private final MarketData market;
+    private final SplittableRandom root;
+    private final ForkJoinPool pool;
+    private SplittableRandom[] blockRandoms;
+    
+    public RandomWalkFeed(MarketData market, long seed) {
+        this(market, seed, ForkJoinPool.commonPool());
+    }
+    
+    public RandomWalkFeed(MarketData market, long seed, ForkJoinPool pool) {
+        this.market = market;
+        this.root = new SplittableRandom(seed);
+        this.pool = pool;
+        this.blockRandoms = new SplittableRandom[0];
+    }
+    
+    @Override
+    public int publish(TickSink sink) {
+        long timestamp = System.currentTimeMillis();
+        int count = market.getSymbolCount();
+        int blocks = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        ensureBlocks(blocks);
+        
+        if (blocks <= 1 || pool.getParallelism() <= 1) {
+            for (int block = 0; block < blocks; block++) {
+                walk(block, count, sink, timestamp);
+            }
+        } else {
+            pool.invoke(new WalkTask(0, blocks, count, sink, timestamp));
+        }
+        return count;
+    }
+    
+    private void walk(int block, int count, TickSink sink, long timestamp) {
+        SplittableRandom random = blockRandoms[block];
+        int end = Math.min(count, (block + 1) * BLOCK_SIZE);
+        for (int i = block * BLOCK_SIZE; i < end; i++) {
+            int id = market.getSymbolIdAt(i);
+            double change = (random.nextDouble() - 0.5) * 10;
+            double newPrice = Math.max(1, market.getPrice(id) + change);
+            sink.onTick(id, newPrice, timestamp);
+        }
+        sink.endBatch();
+    }
+    
+    private void ensureBlocks(int blocks) {
+        if (blocks <= blockRandoms.length) return;
+        int existing = blockRandoms.length;
+        blockRandoms = Arrays.copyOf(blockRandoms, blocks);
+        for (int i = existing; i < blocks; i++) {
+            blockRandoms[i] = root.split();
+        }
+    }
+    
+    private class WalkTask extends RecursiveAction {
+        private final int fromBlock;
+        private final int toBlock;
+        private final int count;
+        private final TickSink sink;
+        private final long timestamp;
+        
+        WalkTask(int fromBlock, int toBlock, int count, TickSink sink, long timestamp) {
+            this.fromBlock = fromBlock;
+            this.toBlock = toBlock;
+            this.count = count;
+            this.sink = sink;
+            this.timestamp = timestamp;
+        }
+        
+        @Override
+        protected void compute() {
+            if (toBlock - fromBlock == 1) {
+                walk(fromBlock, count, sink, timestamp);
+                return;
+            }
+            int mid = (fromBlock + toBlock) >>> 1;
+            invokeAll(new WalkTask(fromBlock, mid, count, sink, timestamp),
+                      new WalkTask(mid, toBlock, count, sink, timestamp));
+        }
+    }
+}
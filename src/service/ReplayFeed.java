@@ -0,0 +1,84 @@
+package service;
+
+import model.TickSink;
+import java.io.IOException;
+
+public abstract class ReplayFeed implements MarketDataFeed {
+    public static final double AS_FAST_AS_POSSIBLE = 0;
+    
+    private final double speed;
+    protected String symbol;
+    protected double price;
+    protected long timestamp;
+    private boolean pending;
+    private boolean exhausted;
+    private boolean started;
+    private long firstTimestamp;
+    private long startNanos;
+    private long published;
+    
+    protected ReplayFeed(double speed) {
+        this.speed = speed;
+    }
+    
+    protected abstract boolean read() throws IOException;
+    
+    @Override
+    public int publish(TickSink sink) {
+        if (!peek()) return -1;
+        start();
+        
+        long slice = timestamp;
+        int count = 0;
+        do {
+            sink.onTick(symbol, price, timestamp);
+            pending = false;
+            count++;
+        } while (peek() && timestamp == slice);
+        published += count;
+        return count;
+    }
+    
+    @Override
+    public long delayNanos() {
+        if (speed <= AS_FAST_AS_POSSIBLE || !peek()) return 0;
+        if (!started) {
+            start();
+            return 0;
+        }
+        long due = startNanos + (long) ((timestamp - firstTimestamp) * 1_000_000 / speed);
+        return Math.max(0, due - System.nanoTime());
+    }
+    
+    @Override
+    public boolean isLive() {
+        return false;
+    }
+    
+    public double getSpeed() { return speed; }
+    public long getTicksPublished() { return published; }
+    public boolean isExhausted() { return exhausted; }
+    
+    private void start() {
+        if (started) return;
+        started = true;
+        firstTimestamp = timestamp;
+        startNanos = System.nanoTime();
+    }
+    
+    private boolean peek() {
+        if (pending) return true;
+        if (exhausted) return false;
+        try {
+            pending = read();
+        } catch (IOException e) {
+            System.out.println("Replay stopped: " + e.getMessage());
+            pending = false;
+        }
+        if (!pending) {
+            exhausted = true;
+            close();
+        }
+        return pending;
+    }
+}
@@ -0,0 +1,43 @@
+package service;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+class SymbolIndex<T> {
+    private volatile AtomicReferenceArray<Set<T>> setsById = new AtomicReferenceArray<>(0);
+    
+    Set<T> get(int symbolId) {
+        AtomicReferenceArray<Set<T>> current = setsById;
+        Set<T> set = symbolId >= 0 && symbolId < current.length() ? current.get(symbolId) : null;
+        return set != null ? set : Collections.emptySet();
+    }
+    
+    Set<T> getOrCreate(int symbolId) {
+        AtomicReferenceArray<Set<T>> current = setsById;
+        Set<T> set = symbolId < current.length() ? current.get(symbolId) : null;
+        if (set != null) return set;
+        synchronized (this) {
+            current = setsById;
+            if (symbolId >= current.length()) {
+                AtomicReferenceArray<Set<T>> grown = new AtomicReferenceArray<>(Math.max(symbolId + 1, current.length() * 2));
+                for (int i = 0; i < current.length(); i++) {
+                    grown.set(i, current.get(i));
+                }
+                current = grown;
+            }
+            if (current.get(symbolId) == null) current.set(symbolId, ConcurrentHashMap.newKeySet());
+            setsById = current;
+            return current.get(symbolId);
+        }
+    }
+    
+    void removeEverywhere(T value) {
+        AtomicReferenceArray<Set<T>> current = setsById;
+        for (int i = 0; i < current.length(); i++) {
+            Set<T> set = current.get(i);
+            if (set != null) set.remove(value);
+        }
+    }
+}
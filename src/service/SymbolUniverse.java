@@ -0,0 +1,73 @@
+package service;
+
+import model.Stock;
+import model.SymbolTable;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class SymbolUniverse {
+    public static final String DEFAULT_FILE = "data/symbols.csv";
+    
+    private SymbolUniverse() {}
+    
+    public static List<Stock> load() {
+        Path file = Paths.get(System.getProperty("trading.symbols.file", DEFAULT_FILE));
+        if (!Files.isRegularFile(file)) return defaults();
+        try {
+            List<Stock> stocks = load(file);
+            return stocks.isEmpty() ? defaults() : stocks;
+        } catch (IOException e) {
+            System.out.println("Cannot load symbol universe from " + file + ": " + e.getMessage());
+            return defaults();
+        }
+    }
+    
+    public static List<Stock> load(Path file) throws IOException {
+        List<Stock> stocks = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                
+                int first = line.indexOf(',');
+                int last = line.lastIndexOf(',');
+                if (first < 0 || first == last) throw malformed(file, lineNumber, line);
+                String symbol = line.substring(0, first).trim().toUpperCase();
+                if (lineNumber == 1 && symbol.equals("SYMBOL")) continue;
+                
+                String name = line.substring(first + 1, last).trim();
+                double price;
+                try {
+                    price = Double.parseDouble(line.substring(last + 1).trim());
+                } catch (NumberFormatException e) {
+                    throw malformed(file, lineNumber, line);
+                }
+                stocks.add(new Stock(SymbolTable.nameOf(SymbolTable.idOf(symbol)), name, price));
+            }
+        }
+        return stocks;
+    }
+    
+    public static List<Stock> defaults() {
+        List<Stock> stocks = new ArrayList<>();
+        stocks.add(new Stock("AAPL", "Apple Inc.", 175.50));
+        stocks.add(new Stock("GOOGL", "Alphabet Inc.", 140.25));
+        stocks.add(new Stock("MSFT", "Microsoft Corp.", 380.75));
+        stocks.add(new Stock("AMZN", "Amazon.com Inc.", 145.30));
+        stocks.add(new Stock("TSLA", "Tesla Inc.", 245.60));
+        return stocks;
+    }
+    
+    private static IOException malformed(Path file, int lineNumber, String line) {
+        return new IOException("Malformed symbol at " + file + ":" + lineNumber + ": " + line);
+    }
+}
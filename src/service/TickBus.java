@@ -0,0 +1,115 @@
+package service;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class TickBus {
+    static final int SEGMENT_SHIFT = 10;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    static final int SEGMENT_WORDS = SEGMENT_SIZE >>> 6;
+    private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+    
+    private volatile Book book;
+    private volatile TickSubscription[] subscriptions;
+    
+    public TickBus() {
+        this.book = new Book(null, SEGMENT_SIZE);
+        this.subscriptions = new TickSubscription[0];
+    }
+    
+    public TickSubscription subscribe(String name, Runnable signal) {
+        TickSubscription subscription;
+        synchronized (this) {
+            Book current = book;
+            subscription = new TickSubscription(this, name, signal, current.capacity);
+            TickSubscription[] next = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+            next[next.length - 1] = subscription;
+            subscriptions = next;
+            subscription.markAll(current);
+        }
+        return subscription;
+    }
+    
+    public synchronized void unsubscribe(TickSubscription subscription) {
+        TickSubscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                TickSubscription[] next = new TickSubscription[current.length - 1];
+                System.arraycopy(current, 0, next, 0, i);
+                System.arraycopy(current, i + 1, next, i, current.length - i - 1);
+                subscriptions = next;
+                return;
+            }
+        }
+    }
+    
+    public int getSubscriberCount() {
+        return subscriptions.length;
+    }
+    
+    public void publish(int symbolId, double price, long timestamp) {
+        Book current = book;
+        if (symbolId >= current.capacity) current = grow(symbolId);
+        Segment segment = current.segments[symbolId >>> SEGMENT_SHIFT];
+        int slot = symbolId & SEGMENT_MASK;
+        segment.prices[slot] = price;
+        segment.timestamps[slot] = timestamp;
+        int word = symbolId >>> 6;
+        long bit = 1L << symbolId;
+        int known = word & (SEGMENT_WORDS - 1);
+        if ((segment.known.get(known) & bit) == 0) segment.known.getAndAccumulate(known, bit, TickBus::or);
+        for (TickSubscription subscription : subscriptions) {
+            subscription.mark(word, bit);
+        }
+    }
+    
+    Book book() {
+        return book;
+    }
+    
+    static long or(long word, long bit) {
+        return word | bit;
+    }
+    
+    private synchronized Book grow(int symbolId) {
+        Book current = book;
+        if (symbolId < current.capacity) return current;
+        int capacity = current.capacity;
+        while (capacity <= symbolId) capacity *= 2;
+        for (TickSubscription subscription : subscriptions) {
+            subscription.grow(capacity);
+        }
+        Book grown = new Book(current, capacity);
+        book = grown;
+        return grown;
+    }
+    
+    static final class Book {
+        final int capacity;
+        final Segment[] segments;
+        
+        Book(Book previous, int capacity) {
+            this.capacity = capacity;
+            this.segments = new Segment[capacity >>> SEGMENT_SHIFT];
+            int kept = previous != null ? previous.segments.length : 0;
+            if (kept > 0) System.arraycopy(previous.segments, 0, segments, 0, kept);
+            for (int i = kept; i < segments.length; i++) {
+                segments[i] = new Segment();
+            }
+        }
+        
+        double price(int symbolId) {
+            return segments[symbolId >>> SEGMENT_SHIFT].prices[symbolId & SEGMENT_MASK];
+        }
+        
+        long timestamp(int symbolId) {
+            return segments[symbolId >>> SEGMENT_SHIFT].timestamps[symbolId & SEGMENT_MASK];
+        }
+    }
+    
+    static final class Segment {
+        final double[] prices = new double[SEGMENT_SIZE];
+        final long[] timestamps = new long[SEGMENT_SIZE];
+        final AtomicLongArray known = new AtomicLongArray(SEGMENT_WORDS);
+    }
+}
@@ -0,0 +1,44 @@
+package service;
+
+import database.TickStore;
+import model.PriceSeries;
+import java.util.Collection;
+import java.util.PriorityQueue;
+
+public class TickFileReplayFeed extends ReplayFeed {
+    private final PriorityQueue<Cursor> cursors;
+    
+    public TickFileReplayFeed(TickStore store, Collection<String> symbols, long fromTimestamp, long toTimestamp,
+                              double speed) {
+        super(speed);
+        this.cursors = new PriorityQueue<>(Math.max(1, symbols.size()),
+            (a, b) -> Long.compare(a.series.getTimestamp(a.index), b.series.getTimestamp(b.index)));
+        for (String symbol : symbols) {
+            PriceSeries series = store.range(symbol, fromTimestamp, toTimestamp);
+            if (series != null && !series.isEmpty()) cursors.add(new Cursor(symbol, series));
+        }
+    }
+    
+    @Override
+    protected boolean read() {
+        Cursor cursor = cursors.poll();
+        if (cursor == null) return false;
+        
+        symbol = cursor.symbol;
+        price = cursor.series.getPrice(cursor.index);
+        timestamp = cursor.series.getTimestamp(cursor.index);
+        if (++cursor.index < cursor.series.size()) cursors.add(cursor);
+        return true;
+    }
+    
+    private static class Cursor {
+        private final String symbol;
+        private final PriceSeries series;
+        private int index;
+        
+        Cursor(String symbol, PriceSeries series) {
+            this.symbol = symbol;
+            this.series = series;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package service;
+
+import model.TickSink;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class TickSubscription implements AutoCloseable {
+    private final TickBus bus;
+    private final String name;
+    private final Runnable signal;
+    private final AtomicBoolean signalled;
+    private final LongAdder conflated;
+    private volatile AtomicLongArray[] dirty;
+    private volatile long delivered;
+    
+    TickSubscription(TickBus bus, String name, Runnable signal, int capacity) {
+        this.bus = bus;
+        this.name = name;
+        this.signal = signal;
+        this.signalled = new AtomicBoolean();
+        this.conflated = new LongAdder();
+        this.dirty = segments(new AtomicLongArray[0], capacity);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public long getDeliveredCount() {
+        return delivered;
+    }
+    
+    public long getConflatedCount() {
+        return conflated.sum();
+    }
+    
+    public int drain(TickSink sink) {
+        signalled.set(false);
+        AtomicLongArray[] segments = dirty;
+        int count = 0;
+        for (int s = 0; s < segments.length; s++) {
+            AtomicLongArray words = segments[s];
+            for (int w = 0; w < TickBus.SEGMENT_WORDS; w++) {
+                if (words.get(w) == 0) continue;
+                long bits = words.getAndSet(w, 0);
+                TickBus.Book book = bus.book();
+                int base = (s << TickBus.SEGMENT_SHIFT) + (w << 6);
+                while (bits != 0) {
+                    int symbolId = base + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    sink.onTick(symbolId, book.price(symbolId), book.timestamp(symbolId));
+                    count++;
+                }
+            }
+        }
+        delivered += count;
+        return count;
+    }
+    
+    @Override
+    public void close() {
+        bus.unsubscribe(this);
+    }
+    
+    void mark(int word, long bit) {
+        AtomicLongArray words = dirty[word >>> (TickBus.SEGMENT_SHIFT - 6)];
+        int w = word & (TickBus.SEGMENT_WORDS - 1);
+        if ((words.get(w) & bit) != 0 || (words.getAndAccumulate(w, bit, TickBus::or) & bit) != 0) {
+            conflated.increment();
+            return;
+        }
+        if (!signalled.get() && signalled.compareAndSet(false, true) && signal != null) signal.run();
+    }
+    
+    void markAll(TickBus.Book book) {
+        AtomicLongArray[] segments = dirty;
+        boolean any = false;
+        for (int s = 0; s < book.segments.length; s++) {
+            AtomicLongArray known = book.segments[s].known;
+            for (int w = 0; w < TickBus.SEGMENT_WORDS; w++) {
+                long bits = known.get(w);
+                if (bits == 0) continue;
+                segments[s].getAndAccumulate(w, bits, TickBus::or);
+                any = true;
+            }
+        }
+        if (any && signalled.compareAndSet(false, true) && signal != null) signal.run();
+    }
+    
+    void grow(int capacity) {
+        dirty = segments(dirty, capacity);
+    }
+    
+    private static AtomicLongArray[] segments(AtomicLongArray[] current, int capacity) {
+        AtomicLongArray[] grown = Arrays.copyOf(current, capacity >>> TickBus.SEGMENT_SHIFT);
+        for (int s = current.length; s < grown.length; s++) {
+            grown[s] = new AtomicLongArray(TickBus.SEGMENT_WORDS);
+        }
+        return grown;
+    }
+}
@@ -2,69 +2,346 @@ package service;
 
 import model.*;
 import database.DatabaseManager;
+import database.UserSnapshot;
+import util.Counter;
+import util.LatencyHistogram;
+import util.Metrics;
+import util.StartupTimer;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class TradingPlatform {
-    private User user;
+    private volatile User user;
+    private CompletableFuture<User> pendingUser;
+    private AccountRegistry accounts;
     private MarketData marketData;
     private DatabaseManager dbManager;
-    private static final String DATA_FILE = "data/user_data.ser";
+    private MatchingEngine matchingEngine;
+    private Map<Long, Double> reservations;
+    private CommandSequencer sequencer;
+    private AlertIndex alertIndex;
+    private TickSubscription alertTicks;
+    private TickSubscription markTicks;
+    private TickSubscription orderTicks;
+    private final TickSink marker;
+    private final TickSink orderTrigger;
+    private StartupTimer startupTimer;
+    private static final String DEFAULT_USERNAME = "Trader";
+    private static final LatencyHistogram BUY_LATENCY = Metrics.histogram("platform.buyStock");
+    private static final LatencyHistogram SELL_LATENCY = Metrics.histogram("platform.sellStock");
+    private static final LatencyHistogram UPDATE_MARKET_LATENCY = Metrics.histogram("platform.updateMarket");
+    private static final LatencyHistogram UPDATE_PRICES_LATENCY = Metrics.histogram("platform.updatePrices");
+    private static final LatencyHistogram PROCESS_ORDERS_LATENCY = Metrics.histogram("platform.processOrders");
+    private static final LatencyHistogram CHECK_ALERTS_LATENCY = Metrics.histogram("platform.checkAlerts");
+    private static final Counter TRADES_EXECUTED = Metrics.counter("trades.executed");
+    private static final Counter TRADES_REJECTED = Metrics.counter("trades.rejected");
+    private static final Counter ALERTS_FIRED = Metrics.counter("alerts.fired");
+    private static final String DATA_FILE = "data/user_data.snap";
+    private static final String LEGACY_DATA_FILE = "data/user_data.ser";
     
     public User getUser() { return user; }
+    public AccountRegistry getAccounts() { return accounts; }
     public MarketData getMarketData() { return marketData; }
     public DatabaseManager getDbManager() { return dbManager; }
+    public MatchingEngine getMatchingEngine() { return matchingEngine; }
+    public CommandSequencer getSequencer() { return sequencer; }
+    public AlertIndex getAlertIndex() { return alertIndex; }
+    public StartupTimer getStartupTimer() { return startupTimer; }
     
     public TradingPlatform() {
-        this.marketData = new MarketData();
-        this.dbManager = new DatabaseManager();
-        loadUser();
+        this(new StartupTimer());
+    }
+    
+    public TradingPlatform(StartupTimer startupTimer) {
+        this.startupTimer = startupTimer;
+        this.dbManager = DatabaseManager.getInstance();
+        dbManager.opened().whenComplete((ignored, error) -> startupTimer.mark("database open"));
+        CompletableFuture<User> storedUser = CompletableFuture.supplyAsync(
+            () -> startupTimer.time("user (database)", () -> dbManager.loadUser(DEFAULT_USERNAME)));
+        CompletableFuture<User> savedUser = CompletableFuture.supplyAsync(
+            () -> startupTimer.time("user (snapshot file)", this::loadSavedUser));
+        this.marketData = startupTimer.time("market data", MarketData::new);
+        this.accounts = new AccountRegistry(dbManager);
+        this.matchingEngine = new MatchingEngine(this::settleFill);
+        this.reservations = new ConcurrentHashMap<>();
+        this.alertIndex = new AlertIndex();
+        this.alertTicks = marketData.getTickBus().subscribe("alerts", null);
+        this.markTicks = marketData.getTickBus().subscribe("marks", null);
+        this.orderTicks = marketData.getTickBus().subscribe("orders", null);
+        this.marker = new TickSink() {
+            @Override
+            public void onTick(String symbol, double price, long timestamp) {
+                markHolders(SymbolTable.lookup(symbol), price);
+            }
+            
+            @Override
+            public void onTick(int symbolId, double price, long timestamp) {
+                markHolders(symbolId, price);
+            }
+        };
+        this.orderTrigger = new TickSink() {
+            @Override
+            public void onTick(String symbol, double price, long timestamp) {
+                processOrders(SymbolTable.lookup(symbol), price);
+            }
+            
+            @Override
+            public void onTick(int symbolId, double price, long timestamp) {
+                processOrders(symbolId, price);
+            }
+        };
+        User saved = savedUser.join();
+        if (saved != null) {
+            migrateLegacyAlerts(saved);
+            this.user = saved;
+            this.pendingUser = storedUser;
+            System.out.println("Welcome back, " + user.getUsername() + "!");
+        } else {
+            this.user = startupTimer.time("user (database wait)", storedUser::join);
+        }
+        accounts.register(user);
+        startupTimer.time("mark to market", this::markToMarket);
+        startupTimer.time("index alerts", () -> indexAlerts(user));
+        dbManager.getTransactionJournal().start(accounts::getAll);
+        this.sequencer = new CommandSequencer(this);
+        sequencer.start();
+        if (pendingUser != null) storedUser.whenComplete((stored, error) -> sequencer.completeStartup());
+        if (Boolean.parseBoolean(System.getProperty("trading.metrics.jmx", "true"))) {
+            CompletableFuture.runAsync(Metrics::publish);
+        }
+        startupTimer.mark("platform ready");
     }
     
     public boolean buyStock(String symbol, int quantity) {
+        long start = System.nanoTime();
+        try {
+            return countTrade(buy(symbol, quantity));
+        } finally {
+            BUY_LATENCY.recordSince(start);
+        }
+    }
+    
+    public boolean sellStock(String symbol, int quantity) {
+        long start = System.nanoTime();
+        try {
+            return countTrade(sell(symbol, quantity));
+        } finally {
+            SELL_LATENCY.recordSince(start);
+        }
+    }
+    
+    public boolean buyStock(String username, String symbol, int quantity) {
+        long start = System.nanoTime();
+        try {
+            User account = accounts.get(username);
+            return countTrade(account != null && executeOrderSilently(account, symbol, quantity, true));
+        } finally {
+            BUY_LATENCY.recordSince(start);
+        }
+    }
+    
+    public boolean sellStock(String username, String symbol, int quantity) {
+        long start = System.nanoTime();
+        try {
+            User account = accounts.get(username);
+            return countTrade(account != null && executeOrderSilently(account, symbol, quantity, false));
+        } finally {
+            SELL_LATENCY.recordSince(start);
+        }
+    }
+    
+    private static boolean validOrder(int quantity, double price) {
+        return quantity > 0 && price > 0 && Double.isFinite(price);
+    }
+    
+    private static boolean countTrade(boolean executed) {
+        (executed ? TRADES_EXECUTED : TRADES_REJECTED).increment();
+        return executed;
+    }
+    
+    private boolean buy(String symbol, int quantity) {
+        if (quantity <= 0) {
+            showMessage("Quantity must be positive!");
+            return false;
+        }
         Stock stock = marketData.getStock(symbol);
         if (stock == null) {
             System.out.println("Stock not found!");
             return false;
         }
         
-        double totalCost = stock.getCurrentPrice() * quantity;
-        if (!user.deductBalance(totalCost)) {
-            showMessage("Insufficient balance!");
-            return false;
+        double price = stock.getCurrentPrice();
+        double totalCost = price * quantity;
+        User account = user;
+        synchronized (account) {
+            if (!account.deductBalance(totalCost)) {
+                showMessage("Insufficient balance!");
+                return false;
+            }
+            
+            account.getPortfolio().addStock(symbol, quantity, price);
+            accounts.addHolder(symbol, account);
+            account.addTransaction(new Transaction(symbol, "BUY", quantity, price));
         }
-        
-        user.getPortfolio().addStock(symbol, quantity, stock.getCurrentPrice());
-        user.addTransaction(new Transaction(symbol, "BUY", quantity, stock.getCurrentPrice()));
         showMessage(String.format("Bought %d shares of %s for $%.2f", quantity, symbol, totalCost));
         return true;
     }
     
-    public boolean sellStock(String symbol, int quantity) {
+    private boolean sell(String symbol, int quantity) {
+        if (quantity <= 0) {
+            showMessage("Quantity must be positive!");
+            return false;
+        }
         Stock stock = marketData.getStock(symbol);
         if (stock == null) {
             showMessage("Stock not found!");
             return false;
         }
         
-        if (!user.getPortfolio().removeStock(symbol, quantity)) {
-            showMessage("Insufficient shares to sell!");
-            return false;
+        double price = stock.getCurrentPrice();
+        double totalRevenue = price * quantity;
+        User account = user;
+        synchronized (account) {
+            if (!account.getPortfolio().removeStock(symbol, quantity)) {
+                showMessage("Insufficient shares to sell!");
+                return false;
+            }
+            
+            account.addBalance(totalRevenue);
+            account.addTransaction(new Transaction(symbol, "SELL", quantity, price));
         }
-        
-        double totalRevenue = stock.getCurrentPrice() * quantity;
-        user.addBalance(totalRevenue);
-        user.addTransaction(new Transaction(symbol, "SELL", quantity, stock.getCurrentPrice()));
         showMessage(String.format("Sold %d shares of %s for $%.2f", quantity, symbol, totalRevenue));
         return true;
     }
     
+    public void placeOrder(Order order) {
+        if (!validOrder(order.getQuantity(), order.getTargetPrice())) {
+            showMessage("Quantity and price must be positive!");
+            return;
+        }
+        User account = user;
+        synchronized (account) {
+            addOrder(account, order);
+        }
+    }
+    
+    public void cancelOrder(String orderId) {
+        User account = user;
+        synchronized (account) {
+            account.getOrderBook().removeOrder(orderId);
+        }
+    }
+    
+    public boolean placeOrder(String username, Order order) {
+        User account = accounts.get(username);
+        if (account == null || marketData.getStock(order.getSymbol()) == null) return false;
+        if (!validOrder(order.getQuantity(), order.getTargetPrice())) return false;
+        synchronized (account) {
+            addOrder(account, order);
+        }
+        return true;
+    }
+    
+    public boolean cancelOrder(String username, String orderId) {
+        User account = accounts.get(username);
+        if (account == null) return false;
+        synchronized (account) {
+            return account.getOrderBook().removeOrder(orderId);
+        }
+    }
+    
+    public long submitLimitOrder(String username, String symbol, String action, int quantity, double limitPrice) {
+        User account = accounts.get(username);
+        if (account == null || marketData.getStock(symbol) == null) return -1;
+        if (!validOrder(quantity, limitPrice)) return -1;
+        
+        boolean isBuy = action.equals("BUY");
+        double reserved;
+        synchronized (account) {
+            if (isBuy) {
+                if (!account.deductBalance(limitPrice * quantity)) return -1;
+                reserved = limitPrice;
+            } else {
+                reserved = account.getPortfolio().getAvgPrice(symbol);
+                if (!account.getPortfolio().removeStock(symbol, quantity)) return -1;
+            }
+        }
+        
+        long orderId = matchingEngine.nextOrderId();
+        reservations.put(orderId, reserved);
+        matchingEngine.submit(orderId, username, symbol, isBuy, limitPrice, quantity);
+        return orderId;
+    }
+    
+    public boolean cancelLimitOrder(String username, String symbol, long orderId) {
+        User account = accounts.get(username);
+        if (account == null) return false;
+        LimitOrderBook.RestingOrder order = matchingEngine.cancel(username, symbol, orderId);
+        if (order == null) return false;
+        release(account, symbol, order);
+        return true;
+    }
+    
+    private void cancelRestingOrders() {
+        for (Map.Entry<String, List<LimitOrderBook.RestingOrder>> entry : matchingEngine.cancelAll().entrySet()) {
+            for (LimitOrderBook.RestingOrder order : entry.getValue()) {
+                User account = accounts.get(order.getAccount());
+                if (account != null) release(account, entry.getKey(), order);
+            }
+        }
+    }
+    
+    private void release(User account, String symbol, LimitOrderBook.RestingOrder order) {
+        Double stored = reservations.remove(order.getOrderId());
+        double reserved = stored != null ? stored : order.getPrice();
+        synchronized (account) {
+            if (order.isBuy()) {
+                account.addBalance(reserved * order.getRemaining());
+            } else {
+                account.getPortfolio().addStock(symbol, order.getRemaining(), reserved);
+                accounts.addHolder(symbol, account);
+            }
+        }
+    }
+    
+    private void settleFill(Fill fill) {
+        User buyer = accounts.get(fill.getBuyer());
+        if (buyer != null) {
+            Double reserved = fill.getBuyRemaining() == 0
+                ? reservations.remove(fill.getBuyOrderId())
+                : reservations.get(fill.getBuyOrderId());
+            double limitPrice = reserved != null ? reserved : fill.getPrice();
+            synchronized (buyer) {
+                buyer.addBalance((limitPrice - fill.getPrice()) * fill.getQuantity());
+                buyer.getPortfolio().addStock(fill.getSymbol(), fill.getQuantity(), fill.getPrice());
+                accounts.addHolder(fill.getSymbol(), buyer);
+                buyer.addTransaction(new Transaction(fill.getSymbol(), "BUY", fill.getQuantity(), fill.getPrice()));
+            }
+        }
+        
+        User seller = accounts.get(fill.getSeller());
+        if (seller != null) {
+            if (fill.getSellRemaining() == 0) reservations.remove(fill.getSellOrderId());
+            synchronized (seller) {
+                seller.addBalance(fill.getPrice() * fill.getQuantity());
+                seller.addTransaction(new Transaction(fill.getSymbol(), "SELL", fill.getQuantity(), fill.getPrice()));
+            }
+        }
+    }
+    
     private void showMessage(String msg) {
         if (java.awt.GraphicsEnvironment.isHeadless()) {
             System.out.println(msg);
-        } else {
+        } else if (SwingUtilities.isEventDispatchThread()) {
             JOptionPane.showMessageDialog(null, msg);
+        } else {
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, msg));
         }
     }
     
@@ -73,16 +350,13 @@ public class TradingPlatform {
         System.out.printf("Balance: $%.2f\n", user.getBalance());
         
         Portfolio portfolio = user.getPortfolio();
-        if (portfolio.getHoldings().isEmpty()) {
+        if (portfolio.isEmpty()) {
             System.out.println("No holdings.");
             return;
         }
         
         System.out.println("\nHoldings:");
-        for (var entry : portfolio.getHoldings().entrySet()) {
-            String symbol = entry.getKey();
-            int qty = entry.getValue();
-            double avgPrice = portfolio.getAvgPrice(symbol);
+        portfolio.forEach((symbol, qty, avgPrice, mark) -> {
             Stock stock = marketData.getStock(symbol);
             double currentPrice = stock.getCurrentPrice();
             double invested = avgPrice * qty;
@@ -91,59 +365,92 @@ public class TradingPlatform {
             
             System.out.printf("%s: %d shares | Avg: $%.2f | Current: $%.2f | Value: $%.2f | P/L: $%.2f (%.2f%%)\n",
                 symbol, qty, avgPrice, currentPrice, currentValue, profitLoss, (profitLoss/invested)*100);
-        }
+        });
         
-        double totalValue = portfolio.calculateTotalValue(marketData.getAllStocks());
-        double totalPL = portfolio.calculateProfitLoss(marketData.getAllStocks());
+        double totalValue = portfolio.getMarketValue();
+        double totalPL = portfolio.getUnrealizedProfitLoss();
         System.out.printf("\nTotal Portfolio Value: $%.2f\n", totalValue);
         System.out.printf("Total Profit/Loss: $%.2f\n", totalPL);
         System.out.printf("Net Worth: $%.2f\n", user.getBalance() + totalValue);
     }
     
-    public void displayTransactionHistory() {
-        System.out.println("\n=== TRANSACTION HISTORY ===");
-        if (user.getTransactionHistory().isEmpty()) {
-            System.out.println("No transactions yet.");
-            return;
+    public List<Transaction> getTransactionPage(String username, long beforeSeq, int limit) {
+        User account = username == null ? user : accounts.getOrLoad(username);
+        dbManager.getTransactionJournal().flush(account);
+        return dbManager.loadTransactionPage(account.getUsername(), beforeSeq, limit);
+    }
+    
+    public long displayTransactionHistory(long beforeSeq, int limit) {
+        if (beforeSeq == Long.MAX_VALUE) System.out.println("\n=== TRANSACTION HISTORY ===");
+        List<Transaction> page = getTransactionPage(null, beforeSeq, limit);
+        if (page.isEmpty()) {
+            System.out.println(beforeSeq == Long.MAX_VALUE ? "No transactions yet." : "No more transactions.");
+            return 0;
         }
-        for (Transaction t : user.getTransactionHistory()) {
+        for (Transaction t : page) {
             System.out.println(t);
         }
+        return page.size() < limit ? 0 : page.get(page.size() - 1).getSequence();
     }
     
-    public void updateMarket() {
-        marketData.updatePrices();
+    public boolean updateMarket() {
+        long start = System.nanoTime();
+        boolean updated = marketData.updatePrices();
+        UPDATE_PRICES_LATENCY.recordSince(start);
+        if (!updated) return false;
+        markTicks.drain(marker);
+        long ordersStart = System.nanoTime();
         processOrders();
+        long alertsStart = System.nanoTime();
+        PROCESS_ORDERS_LATENCY.record(alertsStart - ordersStart);
         checkAlerts();
+        long end = System.nanoTime();
+        CHECK_ALERTS_LATENCY.record(end - alertsStart);
+        UPDATE_MARKET_LATENCY.record(end - start);
+        return true;
     }
     
-    private void processOrders() {
-        for (Order order : user.getOrderBook().getPendingOrders()) {
-            Stock stock = marketData.getStock(order.getSymbol());
-            if (stock == null) continue;
-            
-            boolean execute = false;
-            if (order.getType() == Order.OrderType.LIMIT) {
-                if (order.getAction().equals("BUY") && stock.getCurrentPrice() <= order.getTargetPrice()) {
-                    execute = true;
-                } else if (order.getAction().equals("SELL") && stock.getCurrentPrice() >= order.getTargetPrice()) {
-                    execute = true;
-                }
-            } else if (order.getType() == Order.OrderType.STOP_LOSS) {
-                if (stock.getCurrentPrice() <= order.getTargetPrice()) {
-                    execute = true;
-                }
+    private void markHolders(int symbolId, double price) {
+        Iterator<User> holders = accounts.getHolders(symbolId).iterator();
+        while (holders.hasNext()) {
+            User account = holders.next();
+            synchronized (account) {
+                if (!account.getPortfolio().markToMarket(symbolId, price)) holders.remove();
             }
-            
-            if (execute) {
-                boolean success;
-                if (order.getAction().equals("BUY")) {
-                    success = executeOrderSilently(order.getSymbol(), order.getQuantity(), true);
-                } else {
-                    success = executeOrderSilently(order.getSymbol(), order.getQuantity(), false);
+        }
+    }
+    
+    public void markToMarket() {
+        for (User account : accounts.getAll()) {
+            synchronized (account) {
+                account.getPortfolio().markToMarket(marketData::getPrice);
+            }
+        }
+    }
+    
+    public void processOrders() {
+        orderTicks.drain(orderTrigger);
+    }
+    
+    private void processOrders(int symbolId, double price) {
+        String symbol = SymbolTable.nameOf(symbolId);
+        Iterator<User> holders = accounts.getOrderHolders(symbolId).iterator();
+        while (holders.hasNext()) {
+            User account = holders.next();
+            List<Order> executed = new ArrayList<>();
+            synchronized (account) {
+                OrderBook orderBook = account.getOrderBook();
+                for (Order order : orderBook.getTriggeredOrders(symbol, price)) {
+                    boolean isBuy = order.getAction().equals("BUY");
+                    if (executeOrderSilently(account, order.getSymbol(), order.getQuantity(), isBuy)) {
+                        orderBook.markExecuted(order);
+                        executed.add(order);
+                    }
                 }
-                if (success) {
-                    order.setStatus(Order.OrderStatus.EXECUTED);
+                if (!orderBook.hasTriggers(symbol)) holders.remove();
+            }
+            if (account == user) {
+                for (Order order : executed) {
                     showMessage("Order Executed: " + order.getType() + " " + order.getAction() + " " + 
                                order.getQuantity() + " " + order.getSymbol() + " @ $" + 
                                String.format("%.2f", order.getTargetPrice()));
@@ -152,31 +459,133 @@ public class TradingPlatform {
         }
     }
     
-    private boolean executeOrderSilently(String symbol, int quantity, boolean isBuy) {
+    private void addOrder(User account, Order order) {
+        account.getOrderBook().addOrder(order);
+        if (account.getOrderBook().hasTriggers(order.getSymbol())) accounts.addOrderHolder(order.getSymbol(), account);
+    }
+    
+    private boolean executeOrderSilently(User account, String symbol, int quantity, boolean isBuy) {
+        if (quantity <= 0) return false;
         Stock stock = marketData.getStock(symbol);
         if (stock == null) return false;
         
-        if (isBuy) {
-            double totalCost = stock.getCurrentPrice() * quantity;
-            if (!user.deductBalance(totalCost)) return false;
-            user.getPortfolio().addStock(symbol, quantity, stock.getCurrentPrice());
-            user.addTransaction(new Transaction(symbol, "BUY", quantity, stock.getCurrentPrice()));
-        } else {
-            if (!user.getPortfolio().removeStock(symbol, quantity)) return false;
-            double totalRevenue = stock.getCurrentPrice() * quantity;
-            user.addBalance(totalRevenue);
-            user.addTransaction(new Transaction(symbol, "SELL", quantity, stock.getCurrentPrice()));
+        double price = stock.getCurrentPrice();
+        synchronized (account) {
+            if (isBuy) {
+                double totalCost = price * quantity;
+                if (!account.deductBalance(totalCost)) return false;
+                account.getPortfolio().addStock(symbol, quantity, price);
+                accounts.addHolder(symbol, account);
+                account.addTransaction(new Transaction(symbol, "BUY", quantity, price));
+            } else {
+                if (!account.getPortfolio().removeStock(symbol, quantity)) return false;
+                double totalRevenue = price * quantity;
+                account.addBalance(totalRevenue);
+                account.addTransaction(new Transaction(symbol, "SELL", quantity, price));
+            }
         }
         return true;
     }
     
-    private void checkAlerts() {
-        for (Map.Entry<String, Double> entry : user.getWatchlist().getAllAlerts().entrySet()) {
-            Stock stock = marketData.getStock(entry.getKey());
-            if (stock != null && Math.abs(stock.getCurrentPrice() - entry.getValue()) < 0.5) {
-                showMessage("ALERT: " + entry.getKey() + " reached $" + String.format("%.2f", stock.getCurrentPrice()));
-                user.getWatchlist().removeAlert(entry.getKey());
+    public void checkAlerts() {
+        List<PriceAlert> fired = new ArrayList<>();
+        alertTicks.drain((symbol, price, timestamp) -> alertIndex.onPrice(symbol, price, fired));
+        
+        ALERTS_FIRED.add(fired.size());
+        for (PriceAlert alert : fired) {
+            User owner = accounts.get(alert.getUsername());
+            if (owner == null) continue;
+            synchronized (owner) {
+                owner.getWatchlist().removeAlert(alert);
+            }
+            if (owner == user) {
+                showMessage("ALERT: " + alert.getSymbol() + " crossed " + 
+                           (alert.getDirection() == PriceAlert.Direction.ABOVE ? "above" : "below") + 
+                           " $" + String.format("%.2f", alert.getLevel()) + " (now $" + 
+                           String.format("%.2f", marketData.getStock(alert.getSymbol()).getCurrentPrice()) + ")");
+            }
+        }
+    }
+    
+    public PriceAlert addAlert(String symbol, double level) {
+        Stock stock = marketData.getStock(symbol);
+        if (stock == null) return null;
+        
+        PriceAlert.Direction direction = level >= stock.getCurrentPrice()
+            ? PriceAlert.Direction.ABOVE
+            : PriceAlert.Direction.BELOW;
+        return addAlert(user.getUsername(), symbol, direction, level);
+    }
+    
+    public PriceAlert addAlert(String username, String symbol, PriceAlert.Direction direction, double level) {
+        User account = accounts.getOrLoad(username);
+        Stock stock = marketData.getStock(symbol);
+        if (stock == null) return null;
+        
+        PriceAlert alert = new PriceAlert(username, symbol, direction, level);
+        while (true) {
+            synchronized (account) {
+                if (accounts.get(username) == account) {
+                    account.getWatchlist().addAlert(alert);
+                    break;
+                }
             }
+            account = accounts.getOrLoad(username);
+        }
+        alertIndex.add(alert, stock.getCurrentPrice());
+        return alert;
+    }
+    
+    public boolean removeAlert(PriceAlert alert) {
+        User account = accounts.get(alert.getUsername());
+        while (account != null) {
+            synchronized (account) {
+                if (accounts.get(alert.getUsername()) == account) {
+                    account.getWatchlist().removeAlert(alert);
+                    break;
+                }
+            }
+            account = accounts.get(alert.getUsername());
+        }
+        return alertIndex.remove(alert);
+    }
+    
+    public void addToWatchlist(String symbol) {
+        while (true) {
+            User account = user;
+            synchronized (account) {
+                if (account == user) {
+                    account.getWatchlist().addSymbol(symbol);
+                    return;
+                }
+            }
+        }
+    }
+    
+    public void removeFromWatchlist(String symbol) {
+        List<PriceAlert> removed;
+        while (true) {
+            User account = user;
+            synchronized (account) {
+                if (account == user) {
+                    removed = account.getWatchlist().removeSymbol(symbol);
+                    break;
+                }
+            }
+        }
+        for (PriceAlert alert : removed) {
+            alertIndex.remove(alert);
+        }
+    }
+    
+    private void indexAlerts(User account) {
+        List<PriceAlert> alerts;
+        synchronized (account) {
+            alerts = account.getWatchlist().getAllAlerts();
+        }
+        for (PriceAlert alert : alerts) {
+            Stock stock = marketData.getStock(alert.getSymbol());
+            if (stock != null) alertIndex.add(alert, stock.getCurrentPrice());
         }
     }
     
@@ -184,28 +593,79 @@ public class TradingPlatform {
         marketData.displayMarket();
     }
     
+    public void shutdown() {
+        sequencer.shutdown();
+        cancelRestingOrders();
+        marketData.shutdown();
+        saveUser();
+        dbManager.close();
+    }
+    
     public void saveUser() {
-        dbManager.saveUser(user);
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(DATA_FILE))) {
-            oos.writeObject(user);
+        for (User account : accounts.getAll()) {
+            dbManager.saveUser(account);
+        }
+        try {
+            UserSnapshot.write(user, Paths.get(DATA_FILE));
         } catch (IOException e) {
             System.out.println("Error saving data: " + e.getMessage());
         }
     }
     
-    private void loadUser() {
-        user = dbManager.loadUser("Trader");
-        File file = new File(DATA_FILE);
-        if (file.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(DATA_FILE))) {
-                User fileUser = (User) ois.readObject();
-                if (fileUser.getTransactionHistory().size() > user.getTransactionHistory().size()) {
-                    user = fileUser;
-                }
-                System.out.println("Welcome back, " + user.getUsername() + "!");
-            } catch (IOException | ClassNotFoundException e) {
-                System.out.println("Loaded from database");
+    private User loadSavedUser() {
+        try {
+            if (Files.exists(Paths.get(DATA_FILE))) {
+                return UserSnapshot.read(Paths.get(DATA_FILE));
+            } else if (Files.exists(Paths.get(LEGACY_DATA_FILE))) {
+                return loadLegacyUser();
+            }
+        } catch (IOException | ClassNotFoundException e) {
+            System.out.println("Error loading saved data, using the database instead: " + e);
+        }
+        return null;
+    }
+    
+    void completeStartup() {
+        CompletableFuture<User> pending = pendingUser;
+        if (pending == null) return;
+        pendingUser = null;
+        User stored = startupTimer.time("user (database wait)", pending::join);
+        User current = user;
+        if (stored.getLastTransactionSeq() <= current.getLastTransactionSeq()) return;
+        
+        indexAlerts(stored);
+        synchronized (current) {
+            Watchlist watched = current.getWatchlist();
+            for (String symbol : watched.getSymbols()) {
+                stored.getWatchlist().addSymbol(symbol);
+            }
+            for (PriceAlert alert : watched.getAllAlerts()) {
+                stored.getWatchlist().addAlert(alert);
             }
+            for (Order order : current.getOrderBook().getPendingOrders()) {
+                stored.getOrderBook().addOrder(order);
+            }
+            user = stored;
+            accounts.register(stored);
+        }
+        markToMarket();
+        System.out.println("Loaded from database");
+    }
+    
+    private void migrateLegacyAlerts(User account) {
+        for (Map.Entry<String, Double> entry : account.getWatchlist().takeLegacyAlerts().entrySet()) {
+            Stock stock = marketData.getStock(entry.getKey());
+            if (stock == null) continue;
+            PriceAlert.Direction direction = entry.getValue() >= stock.getCurrentPrice()
+                ? PriceAlert.Direction.ABOVE
+                : PriceAlert.Direction.BELOW;
+            account.getWatchlist().addAlert(new PriceAlert(account.getUsername(), entry.getKey(), direction, entry.getValue()));
+        }
+    }
+    
+    private User loadLegacyUser() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(LEGACY_DATA_FILE))) {
+            return (User) ois.readObject();
         }
     }
 }
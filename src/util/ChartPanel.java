@@ -1,16 +1,43 @@
 package util;
 
-import model.PriceHistory;
+import model.OhlcSeries;
+import model.PriceSeries;
 import javax.swing.*;
 import java.awt.*;
-import java.util.List;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
 
 public class ChartPanel extends JPanel {
-    private List<PriceHistory.PricePoint> data;
+    private static final int PADDING = 40;
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 14);
+    private static final Color LINE_COLOR = new Color(0, 120, 215);
+    private static final Stroke LINE_STROKE = new BasicStroke(2);
+    
+    private PriceSeries data;
     private String symbol;
     
+    private int columns;
+    private int bucketShift;
+    private int bucketCount;
+    private double[] bucketFirst;
+    private double[] bucketMin;
+    private double[] bucketMax;
+    private double[] bucketLast;
+    private int consumed;
+    private long firstTimestamp;
+    private long lastTimestamp;
+    private double minPrice;
+    private double maxPrice;
+    
+    private BufferedImage cache;
+    private boolean dirty;
+    
     public ChartPanel(String symbol) {
         this.symbol = symbol;
+        this.bucketFirst = new double[0];
+        this.bucketMin = new double[0];
+        this.bucketMax = new double[0];
+        this.bucketLast = new double[0];
         setPreferredSize(new Dimension(400, 250));
         setBackground(Color.WHITE);
         setBorder(BorderFactory.createLineBorder(Color.GRAY));
@@ -20,8 +47,10 @@ public class ChartPanel extends JPanel {
         return symbol;
     }
     
-    public void setData(List<PriceHistory.PricePoint> data) {
+    public void setData(PriceSeries data) {
+        if (consumed > 0 && !continues(data)) resetBuckets();
         this.data = data;
+        dirty = true;
         repaint();
     }
     
@@ -33,39 +62,160 @@ public class ChartPanel extends JPanel {
             return;
         }
         
-        Graphics2D g2 = (Graphics2D) g;
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        
-        int padding = 40;
-        int width = getWidth() - 2 * padding;
-        int height = getHeight() - 2 * padding;
-        
-        double minPrice = data.stream().mapToDouble(p -> p.price).min().orElse(0);
-        double maxPrice = data.stream().mapToDouble(p -> p.price).max().orElse(100);
-        double priceRange = maxPrice - minPrice;
-        if (priceRange == 0) priceRange = 1;
-        
-        g2.setColor(Color.LIGHT_GRAY);
-        for (int i = 0; i <= 5; i++) {
-            int y = padding + (height * i / 5);
-            g2.drawLine(padding, y, padding + width, y);
-            double price = maxPrice - (priceRange * i / 5);
-            g2.drawString(String.format("$%.2f", price), 5, y + 5);
+        int width = getWidth() - 2 * PADDING;
+        int height = getHeight() - 2 * PADDING;
+        if (width <= 0 || height <= 0) return;
+        if (width != columns) {
+            columns = width;
+            resetBuckets();
         }
-        
-        g2.setColor(new Color(0, 120, 215));
-        g2.setStroke(new BasicStroke(2));
-        
-        for (int i = 0; i < data.size() - 1; i++) {
-            int x1 = padding + (width * i / (data.size() - 1));
-            int y1 = padding + height - (int)((data.get(i).price - minPrice) / priceRange * height);
-            int x2 = padding + (width * (i + 1) / (data.size() - 1));
-            int y2 = padding + height - (int)((data.get(i + 1).price - minPrice) / priceRange * height);
-            g2.drawLine(x1, y1, x2, y2);
+        if (consumed < data.size()) {
+            consume();
+            dirty = true;
         }
-        
-        g2.setColor(Color.BLACK);
-        g2.setFont(new Font("Arial", Font.BOLD, 14));
-        g2.drawString(symbol + " Price Chart", padding, 20);
+        if (dirty || cache == null || cache.getWidth() != getWidth() || cache.getHeight() != getHeight()) {
+            render(width, height);
+            dirty = false;
+        }
+        g.drawImage(cache, 0, 0, null);
+    }
+    
+    private boolean continues(PriceSeries next) {
+        int last = consumed - 1;
+        return next != null && next.size() >= consumed
+            && next.getTimestamp(0) == firstTimestamp
+            && next.getTimestamp(last) == lastTimestamp
+            && next.getPrice(last) == bucketLast[bucketCount - 1];
+    }
+    
+    private void resetBuckets() {
+        int capacity = Math.max(2, columns);
+        if (bucketFirst.length != capacity) {
+            bucketFirst = new double[capacity];
+            bucketMin = new double[capacity];
+            bucketMax = new double[capacity];
+            bucketLast = new double[capacity];
+        }
+        bucketShift = 0;
+        bucketCount = 0;
+        consumed = 0;
+        minPrice = Double.MAX_VALUE;
+        maxPrice = -Double.MAX_VALUE;
+    }
+    
+    private void consume() {
+        int size = data.size();
+        if (consumed == 0) firstTimestamp = data.getTimestamp(0);
+        OhlcSeries bars = data instanceof OhlcSeries ? (OhlcSeries) data : null;
+        for (int i = consumed; i < size; i++) {
+            double close = data.getPrice(i);
+            if (bars == null) {
+                append(i, close, close, close, close);
+            } else {
+                append(i, bars.getOpen(i), bars.getHigh(i), bars.getLow(i), close);
+            }
+        }
+        consumed = size;
+        lastTimestamp = data.getTimestamp(size - 1);
+    }
+    
+    private void append(int index, double open, double high, double low, double close) {
+        int bucket = index >>> bucketShift;
+        if (bucket == bucketFirst.length) {
+            compact();
+            bucket = index >>> bucketShift;
+        }
+        if (bucket == bucketCount) {
+            bucketFirst[bucket] = open;
+            bucketMin[bucket] = low;
+            bucketMax[bucket] = high;
+            bucketCount++;
+        } else {
+            if (low < bucketMin[bucket]) bucketMin[bucket] = low;
+            if (high > bucketMax[bucket]) bucketMax[bucket] = high;
+        }
+        bucketLast[bucket] = close;
+        if (low < minPrice) minPrice = low;
+        if (high > maxPrice) maxPrice = high;
+    }
+    
+    private void compact() {
+        int merged = 0;
+        for (int i = 0; i < bucketCount; i += 2, merged++) {
+            bucketFirst[merged] = bucketFirst[i];
+            bucketMin[merged] = bucketMin[i];
+            bucketMax[merged] = bucketMax[i];
+            bucketLast[merged] = bucketLast[i];
+            if (i + 1 < bucketCount) {
+                bucketMin[merged] = Math.min(bucketMin[merged], bucketMin[i + 1]);
+                bucketMax[merged] = Math.max(bucketMax[merged], bucketMax[i + 1]);
+                bucketLast[merged] = bucketLast[i + 1];
+            }
+        }
+        bucketCount = merged;
+        bucketShift++;
+    }
+    
+    private void render(int width, int height) {
+        if (cache == null || cache.getWidth() != getWidth() || cache.getHeight() != getHeight()) {
+            cache = new BufferedImage(getWidth(), getHeight(), BufferedImage.TYPE_INT_ARGB);
+        }
+        Graphics2D g2 = cache.createGraphics();
+        try {
+            g2.setComposite(AlphaComposite.Clear);
+            g2.fillRect(0, 0, cache.getWidth(), cache.getHeight());
+            g2.setComposite(AlphaComposite.SrcOver);
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setFont(getFont());
+            
+            double priceRange = maxPrice - minPrice;
+            if (priceRange == 0) priceRange = 1;
+            
+            g2.setColor(Color.LIGHT_GRAY);
+            for (int i = 0; i <= 5; i++) {
+                int y = PADDING + (height * i / 5);
+                g2.drawLine(PADDING, y, PADDING + width, y);
+                double price = maxPrice - (priceRange * i / 5);
+                g2.drawString(String.format("$%.2f", price), 5, y + 5);
+            }
+            
+            if (consumed > 1) {
+                g2.setColor(LINE_COLOR);
+                g2.setStroke(LINE_STROKE);
+                g2.draw(buildPath(width, height, priceRange));
+            }
+            
+            g2.setColor(Color.BLACK);
+            g2.setFont(TITLE_FONT);
+            g2.drawString(symbol + " Price Chart", PADDING, 20);
+        } finally {
+            g2.dispose();
+        }
+    }
+    
+    private Path2D buildPath(int width, int height, double priceRange) {
+        double xScale = (double) width / (consumed - 1);
+        double yScale = height / priceRange;
+        double bottom = PADDING + height;
+        Path2D.Double path = new Path2D.Double(Path2D.WIND_NON_ZERO, bucketCount * 4);
+        for (int b = 0; b < bucketCount; b++) {
+            int start = b << bucketShift;
+            int end = Math.min(consumed, start + (1 << bucketShift)) - 1;
+            double x0 = PADDING + start * xScale;
+            double x1 = PADDING + end * xScale;
+            double first = bottom - (bucketFirst[b] - minPrice) * yScale;
+            if (b == 0) {
+                path.moveTo(x0, first);
+            } else {
+                path.lineTo(x0, first);
+            }
+            if (end > start || bucketMax[b] > bucketMin[b]) {
+                double mid = (x0 + x1) / 2;
+                path.lineTo(mid, bottom - (bucketMax[b] - minPrice) * yScale);
+                path.lineTo(mid, bottom - (bucketMin[b] - minPrice) * yScale);
+                path.lineTo(x1, bottom - (bucketLast[b] - minPrice) * yScale);
+            }
+        }
+        return path;
     }
 }
@@ -0,0 +1,30 @@
+package util;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter implements CounterMBean {
+    private final String name;
+    private final LongAdder count;
+    
+    Counter(String name) {
+        this.name = name;
+        this.count = new LongAdder();
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void increment() {
+        count.increment();
+    }
+    
+    public void add(long amount) {
+        count.add(amount);
+    }
+    
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+}
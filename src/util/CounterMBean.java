@@ -0,0 +1,5 @@
+package util;
+
+public interface CounterMBean {
+    long getCount();
+}
@@ -0,0 +1,63 @@
+package util;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class Metrics {
+    private static final String DOMAIN = "trading";
+    
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static volatile MBeanServer server;
+    
+    private Metrics() {}
+    
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> {
+            LatencyHistogram histogram = new LatencyHistogram(key);
+            register("Latency", key, histogram);
+            return histogram;
+        });
+    }
+    
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> {
+            Counter counter = new Counter(key);
+            register("Counter", key, counter);
+            return counter;
+        });
+    }
+    
+    public static synchronized void publish() {
+        if (server != null) return;
+        server = ManagementFactory.getPlatformMBeanServer();
+        histograms.forEach((name, histogram) -> register("Latency", name, histogram));
+        counters.forEach((name, counter) -> register("Counter", name, counter));
+    }
+    
+    public static String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %10s %10s %10s %10s %10s%n", "Operation (us)", "Count", "p50", "p99", "p99.9", "Max"));
+        new TreeMap<>(histograms).forEach((name, h) -> sb.append(String.format("%-28s %10d %10.1f %10.1f %10.1f %10.1f%n",
+            name, h.getCount(), h.getP50Micros(), h.getP99Micros(), h.getP999Micros(), h.getMaxMicros())));
+        sb.append(String.format("%n%-28s %10s%n", "Counter", "Count"));
+        new TreeMap<>(counters).forEach((name, c) -> sb.append(String.format("%-28s %10d%n", name, c.getCount())));
+        return sb.toString();
+    }
+    
+    private static synchronized void register(String type, String name, Object mbean) {
+        MBeanServer current = server;
+        if (current == null) return;
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=" + type + ",name=" + name);
+            if (!current.isRegistered(objectName)) current.registerMBean(mbean, objectName);
+        } catch (JMException e) {
+            System.out.println("Could not publish metric " + name + ": " + e.getMessage());
+        }
+    }
+}
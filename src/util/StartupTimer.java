@@ -0,0 +1,75 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+public class StartupTimer {
+    private final long origin;
+    private final List<Phase> phases;
+    private final boolean reporting;
+    
+    public StartupTimer() {
+        this.origin = System.nanoTime();
+        this.phases = new ArrayList<>();
+        this.reporting = Boolean.parseBoolean(System.getProperty("trading.startup.report", "false"));
+    }
+    
+    public <T> T time(String name, Supplier<T> work) {
+        long start = System.nanoTime();
+        try {
+            return work.get();
+        } finally {
+            record(name, start, System.nanoTime());
+        }
+    }
+    
+    public void time(String name, Runnable work) {
+        long start = System.nanoTime();
+        try {
+            work.run();
+        } finally {
+            record(name, start, System.nanoTime());
+        }
+    }
+    
+    public void mark(String name) {
+        long now = System.nanoTime();
+        record(name, now, now);
+    }
+    
+    public long elapsedMillis() {
+        return (System.nanoTime() - origin) / 1_000_000;
+    }
+    
+    public synchronized String report() {
+        StringBuilder sb = new StringBuilder("Startup phases (start / duration / thread):\n");
+        for (Phase phase : phases) {
+            sb.append(String.format("  %-22s +%7.1f ms %8.1f ms  %s%n", phase.name,
+                (phase.start - origin) / 1e6, (phase.end - phase.start) / 1e6, phase.thread));
+        }
+        return sb.toString();
+    }
+    
+    public void printReport() {
+        if (reporting) System.out.print(report());
+    }
+    
+    private synchronized void record(String name, long start, long end) {
+        phases.add(new Phase(name, start, end, Thread.currentThread().getName()));
+    }
+    
+    private static class Phase {
+        private final String name;
+        private final long start;
+        private final long end;
+        private final String thread;
+        
+        Phase(String name, long start, long end, String thread) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+            this.thread = thread;
+        }
+    }
+}